@@ -0,0 +1,127 @@
+package automator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logged-in ops console sessions, as Playwright storage state (cookies + local storage JSON), keyed by
+ * environment and user.
+ * <p>
+ * A BrowserContext created from a cached state lands on the loan application page already logged in,
+ * so only the first context per environment and user pays for the /invLogin round-trip. Concurrent
+ * callers for the same key wait for that one login instead of each doing their own. States are also
+ * written to browser_session.dir so the next run can reuse them, and are dropped after
+ * browser_session.ttl_minutes or as soon as a caller reports the server no longer accepts them
+ * ({@link #invalidate}).
+ */
+public class BrowserSessionCache {
+    private static final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private static final Map<String, Object> locks = new ConcurrentHashMap<>();
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder logins = new LongAdder();
+    private static final LongAdder expired = new LongAdder();
+
+    private record Session(String storageState, long savedAt) {
+        boolean isFresh() {
+            return System.currentTimeMillis() - savedAt < ConfigManager.getBrowserSessionTtlMinutes() * 60_000L;
+        }
+    }
+
+    private BrowserSessionCache() {}
+
+    /**
+     * Returns the cached state for environment and user, or runs {@code login} (which must return the
+     * storage state of a freshly logged-in context) and caches its result. Returns null when caching is
+     * disabled and login returned nothing.
+     */
+    public static String getOrLogin(String environment, String user, Callable<String> login) throws Exception {
+        if (!ConfigManager.isBrowserSessionCacheEnabled()) {
+            return login.call();
+        }
+        String key = key(environment, user);
+        synchronized (locks.computeIfAbsent(key, k -> new Object())) {
+            Session session = sessions.get(key);
+            if (session == null) {
+                session = readFromDisk(key);
+            }
+            if (session != null && session.isFresh()) {
+                sessions.put(key, session);
+                hits.increment();
+                return session.storageState();
+            }
+            String storageState = login.call();
+            logins.increment();
+            save(environment, user, storageState);
+            return storageState;
+        }
+    }
+
+    // Replaces the cached state, e.g. after logging in again on a page whose session had expired
+    public static void save(String environment, String user, String storageState) {
+        if (!ConfigManager.isBrowserSessionCacheEnabled() || storageState == null) {
+            return;
+        }
+        String key = key(environment, user);
+        sessions.put(key, new Session(storageState, System.currentTimeMillis()));
+        Path file = fileFor(key);
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.writeString(file, storageState, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            Logger.logError("Unable to write browser session " + file + ": " + e.getMessage());
+        }
+    }
+
+    // Drops the state if it is still the one the caller found rejected (another thread may have replaced it)
+    public static void invalidate(String environment, String user, String rejectedState) {
+        String key = key(environment, user);
+        Session session = sessions.get(key);
+        if (session != null && session.storageState().equals(rejectedState)) {
+            sessions.remove(key);
+            expired.increment();
+            try {
+                Files.deleteIfExists(fileFor(key));
+            } catch (IOException e) {
+                Logger.logError("Unable to delete browser session " + fileFor(key) + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // e.g. "BrowserSessionCache[sessions=1, hits=7, logins=1, expired=0]"
+    public static String describe() {
+        return "BrowserSessionCache[sessions=" + sessions.size() + ", hits=" + hits.sum() + ", logins=" + logins.sum()
+                + ", expired=" + expired.sum() + "]";
+    }
+
+    public static void logStats() {
+        Logger.logInfo(describe());
+    }
+
+    private static Session readFromDisk(String key) {
+        Path file = fileFor(key);
+        try {
+            if (!Files.isRegularFile(file)) {
+                return null;
+            }
+            return new Session(Files.readString(file, StandardCharsets.UTF_8), Files.getLastModifiedTime(file).toMillis());
+        } catch (IOException e) {
+            Logger.logError("Unable to read browser session " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static Path fileFor(String key) {
+        return Paths.get(ConfigManager.getBrowserSessionDir(), key.replaceAll("[^A-Za-z0-9._-]", "_") + ".json");
+    }
+
+    private static String key(String environment, String user) {
+        return environment + "-" + user;
+    }
+}
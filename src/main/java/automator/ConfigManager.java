@@ -2,7 +2,10 @@ package automator;
 
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 
 public class ConfigManager {
     private static final Properties properties = new Properties();
@@ -21,6 +24,19 @@ public class ConfigManager {
         return properties.getProperty(key);
     }
 
+    // Overrides a key for the rest of the run, or removes it when value is null (used by the unit tests)
+    static void setProperty(String key, String value) {
+        if (value == null) {
+            properties.remove(key);
+        } else {
+            properties.setProperty(key, value);
+        }
+    }
+
+    public static Set<String> getPropertyNames() {
+        return properties.stringPropertyNames();
+    }
+
     // Getter Methods for Application Configuration
     public static String getEnvironment() {
         return properties.getProperty("environment");
@@ -33,6 +49,170 @@ public class ConfigManager {
         return properties.getProperty("TARGET_STATE");
     }
 
+    // Empty when no batch is configured
+    public static List<String> getBatchLoanAppIDs() {
+        List<String> loanAppIDs = new ArrayList<>();
+        for (String loanAppID : properties.getProperty("opsflow.batch.loan_app_IDs", "").split(",")) {
+            if (!loanAppID.isBlank()) {
+                loanAppIDs.add(loanAppID.trim());
+            }
+        }
+        return loanAppIDs;
+    }
+
+    // Environments a fan-out test runs against: empty means just "environment", "all" every configured one
+    public static List<String> getFanOutEnvironments() {
+        String value = properties.getProperty("fanout.environments", "").trim();
+        if (value.isEmpty()) {
+            return List.of(getEnvironment());
+        }
+        if (value.equalsIgnoreCase("all")) {
+            return EnvironmentContext.getConfiguredEnvironments();
+        }
+        List<String> environments = new ArrayList<>();
+        for (String environment : value.split(",")) {
+            if (!environment.isBlank()) {
+                environments.add(environment.trim());
+            }
+        }
+        return environments;
+    }
+
+    public static int getBatchParallelism() {
+        return Integer.parseInt(properties.getProperty("opsflow.batch.parallelism", "4"));
+    }
+
+    public static String getVkycCampaignRuns() {
+        return properties.getProperty("vkyc.campaign_runs", "");
+    }
+
+    public static int getVkycParallelism() {
+        return Integer.parseInt(properties.getProperty("vkyc.parallelism", "4"));
+    }
+
+    public static long getVkycPushVerifyTimeoutMs() {
+        return Long.parseLong(properties.getProperty("vkyc.push_verify_timeout_ms", "60000"));
+    }
+
+    public static long getVkycLeadVerifyTimeoutMs() {
+        return Long.parseLong(properties.getProperty("vkyc.lead_verify_timeout_ms", "10000"));
+    }
+
+    public static String getVkycCohortCampaign() {
+        return properties.getProperty("vkyc.cohort.campaign", "VKYC_TRIED");
+    }
+
+    public static List<String> getVkycCohortLoanAppIDs() {
+        List<String> loanAppIDs = new ArrayList<>();
+        for (String loanAppID : properties.getProperty("vkyc.cohort.loan_app_IDs", "").split(",")) {
+            if (!loanAppID.isBlank()) {
+                loanAppIDs.add(loanAppID.trim());
+            }
+        }
+        return loanAppIDs;
+    }
+
+    public static int getOpsflowUiTimeoutMs() {
+        return Integer.parseInt(properties.getProperty("opsflow.ui_timeout_ms", "30000"));
+    }
+
+    public static int getOpsflowOutcomePollMs() {
+        return Integer.parseInt(properties.getProperty("opsflow.outcome_poll_ms", "250"));
+    }
+
+    public static int getOpsflowTransitionTimeoutMs() {
+        return Integer.parseInt(properties.getProperty("opsflow.transition_timeout_ms", "60000"));
+    }
+
+    public static String getOpsflowSaveUrlPattern() {
+        return properties.getProperty("opsflow.save_url_pattern", "/loans/loans/changeReviewStatus");
+    }
+
+    // "ui" drives the ops console in Chromium, "api" calls its endpoints through OpsConsoleClient
+    public static boolean isOpsflowApiMode() {
+        return properties.getProperty("opsflow.transition_mode", "ui").trim().equalsIgnoreCase("api");
+    }
+
+    public static String getOpsflowApiLoginPath() {
+        return properties.getProperty("opsflow.api.login_path", "/loans/j_spring_security_check");
+    }
+
+    public static String getOpsflowApiLockPath() {
+        return properties.getProperty("opsflow.api.lock_path", "/loans/loans/lockLoanApplication");
+    }
+
+    public static String getOpsflowApiStatusPath() {
+        return properties.getProperty("opsflow.api.status_path", "/loans/loans/changeReviewStatus");
+    }
+
+    public static boolean isBrowserSessionCacheEnabled() {
+        return Boolean.parseBoolean(properties.getProperty("browser_session.enabled", "true"));
+    }
+
+    public static String getBrowserSessionDir() {
+        return properties.getProperty("browser_session.dir", "test-output/cache/sessions");
+    }
+
+    public static long getBrowserSessionTtlMinutes() {
+        return Long.parseLong(properties.getProperty("browser_session.ttl_minutes", "60"));
+    }
+
+    // off, blocklist or allowlist (see NetworkProfile)
+    public static String getNetworkProfileMode() {
+        return properties.getProperty("network_profile.mode", "off");
+    }
+
+    public static List<String> getNetworkProfileResourceTypes() {
+        return getList("network_profile.resource_types");
+    }
+
+    public static List<String> getNetworkProfileUrlPatterns() {
+        return getList("network_profile.url_patterns");
+    }
+
+    private static List<String> getList(String key) {
+        List<String> values = new ArrayList<>();
+        for (String value : properties.getProperty(key, "").split(",")) {
+            if (!value.isBlank()) {
+                values.add(value.trim());
+            }
+        }
+        return values;
+    }
+
+    public static int getPlaywrightPoolMaxDrivers() {
+        return Integer.parseInt(properties.getProperty("playwright.pool.max_drivers", "4"));
+    }
+
+    // Getter Methods for the shared HTTP transport
+    public static int getHttpMaxRequests() {
+        return Integer.parseInt(properties.getProperty("http.max_requests", "64"));
+    }
+
+    public static int getHttpMaxRequestsPerHost() {
+        return Integer.parseInt(properties.getProperty("http.max_requests_per_host", "8"));
+    }
+
+    public static int getHttpMaxIdleConnections() {
+        return Integer.parseInt(properties.getProperty("http.max_idle_connections", "16"));
+    }
+
+    public static long getHttpKeepAliveMs() {
+        return Long.parseLong(properties.getProperty("http.keep_alive_ms", "300000"));
+    }
+
+    public static long getHttpConnectTimeoutMs() {
+        return Long.parseLong(properties.getProperty("http.connect_timeout_ms", "10000"));
+    }
+
+    public static long getHttpReadTimeoutMs() {
+        return Long.parseLong(properties.getProperty("http.read_timeout_ms", "120000"));
+    }
+
+    public static long getServerCheckTtlMs() {
+        return Long.parseLong(properties.getProperty("server_check.ttl_ms", "300000"));
+    }
+
     public static boolean isHeadless() {
         return Boolean.parseBoolean(properties.getProperty("headless"));
     }
@@ -76,6 +256,145 @@ public class ConfigManager {
         String environment = getEnvironment();
         return properties.getProperty(environment + ".lending_database_password");  // Dynamically using the environment value
     }
+    // Getter Methods for the per-schema connection pool
+    public static int getDbPoolMinIdle() {
+        return Integer.parseInt(properties.getProperty("db.pool.min_idle", "1"));
+    }
+
+    public static int getDbPoolMaxSize() {
+        return Integer.parseInt(properties.getProperty("db.pool.max_size", "4"));
+    }
+
+    public static long getDbPoolIdleTimeoutMs() {
+        return Long.parseLong(properties.getProperty("db.pool.idle_timeout_ms", "120000"));
+    }
+
+    public static long getDbPoolMaxLifetimeMs() {
+        return Long.parseLong(properties.getProperty("db.pool.max_lifetime_ms", "1500000"));
+    }
+
+    public static long getDbPoolConnectionTimeoutMs() {
+        return Long.parseLong(properties.getProperty("db.pool.connection_timeout_ms", "10000"));
+    }
+
+    public static long getDbPoolValidationTimeoutMs() {
+        return Long.parseLong(properties.getProperty("db.pool.validation_timeout_ms", "3000"));
+    }
+
+    // Getter Methods for the Connector/J prepared statement cache
+    public static boolean isStatementCacheEnabled() {
+        return Boolean.parseBoolean(properties.getProperty("db.stmt_cache.enabled", "true"));
+    }
+
+    public static boolean isServerSidePrepareEnabled() {
+        return Boolean.parseBoolean(properties.getProperty("db.stmt_cache.server_side", "true"));
+    }
+
+    public static int getStatementCacheSize() {
+        return Integer.parseInt(properties.getProperty("db.stmt_cache.size", "64"));
+    }
+
+    public static int getStatementCacheSqlLimit() {
+        return Integer.parseInt(properties.getProperty("db.stmt_cache.sql_limit", "2048"));
+    }
+
+    public static boolean isRewriteBatchedStatementsEnabled() {
+        return Boolean.parseBoolean(properties.getProperty("db.rewrite_batched_statements", "true"));
+    }
+
+    // Rows per JDBC batch (and per transaction) in bulk fixtures such as VkycFixtures
+    public static int getFixtureBatchSize() {
+        return Integer.parseInt(properties.getProperty("fixture.batch_size", "500"));
+    }
+
+    // Getter Methods for Poller defaults (first wait, cap, growth per empty poll, +/- random fraction)
+    public static long getPollerInitialIntervalMs() {
+        return Long.parseLong(properties.getProperty("poller.initial_interval_ms", "500"));
+    }
+
+    public static long getPollerMaxIntervalMs() {
+        return Long.parseLong(properties.getProperty("poller.max_interval_ms", "15000"));
+    }
+
+    public static double getPollerMultiplier() {
+        return Double.parseDouble(properties.getProperty("poller.multiplier", "2.0"));
+    }
+
+    public static double getPollerJitter() {
+        return Double.parseDouble(properties.getProperty("poller.jitter", "0.2"));
+    }
+
+    // Getter Methods for the StatusWatcher adaptive polling interval
+    public static long getStatusWatcherMinIntervalMs() {
+        return Long.parseLong(properties.getProperty("status_watcher.min_interval_ms", "250"));
+    }
+
+    public static long getStatusWatcherMaxIntervalMs() {
+        return Long.parseLong(properties.getProperty("status_watcher.max_interval_ms", "5000"));
+    }
+
+    // Getter Methods for LoanApplicationLookup bulk reads
+    public static int getLookupBatchSize() {
+        return Integer.parseInt(properties.getProperty("lookup.batch_size", "500"));
+    }
+
+    public static int getLookupFetchSize() {
+        return Integer.parseInt(properties.getProperty("lookup.fetch_size", "1000"));
+    }
+
+    // Maximum number of id -> loan_application_no mappings kept by LoanIdentifierCache
+    public static int getLoanIdCacheMaxSize() {
+        return Integer.parseInt(properties.getProperty("loan_id_cache.max_size", "10000"));
+    }
+
+    // Getter Methods for the on-disk metadata store
+    public static boolean isMetadataStoreEnabled() {
+        return Boolean.parseBoolean(properties.getProperty("metadata_store.enabled", "true"));
+    }
+
+    public static String getMetadataStorePath() {
+        return properties.getProperty("metadata_store.path", "test-output/cache/metadata.tsv");
+    }
+
+    public static long getMetadataStoreTtlHours() {
+        return Long.parseLong(properties.getProperty("metadata_store.ttl_hours", "24"));
+    }
+
+    public static int getMetadataStoreCompactThreshold() {
+        return Integer.parseInt(properties.getProperty("metadata_store.compact_threshold", "1000"));
+    }
+
+    // Getter Methods for the background connection health checker
+    public static boolean isDbHealthCheckEnabled() {
+        return Boolean.parseBoolean(properties.getProperty("db.health.enabled", "true"));
+    }
+
+    public static long getDbHealthIntervalMs() {
+        return Long.parseLong(properties.getProperty("db.health.interval_ms", "30000"));
+    }
+
+    public static int getDbHealthValidationTimeoutSeconds() {
+        return Integer.parseInt(properties.getProperty("db.health.validation_timeout_s", "3"));
+    }
+
+    // Getter Methods for JDBC latency metrics and the slow-query log
+    public static boolean isQueryMetricsEnabled() {
+        return Boolean.parseBoolean(properties.getProperty("db.metrics.enabled", "true"));
+    }
+
+    public static long getSlowQueryThresholdMs() {
+        return Long.parseLong(properties.getProperty("db.slow_query.threshold_ms", "500"));
+    }
+
+    public static String getSlowQueryLogPath() {
+        return properties.getProperty("db.slow_query.path", "test-output/slow-queries.log");
+    }
+
+    // Upper bound for bringing all schemas up in DatabaseConnection.connectToDatabases()
+    public static long getDbConnectTimeoutMs() {
+        return Long.parseLong(properties.getProperty("db.connect_timeout_ms", "15000"));
+    }
+
     public static String getUserDataReviewStatus() {
         return properties.getProperty("user_data_review_status", "default_status");
     }
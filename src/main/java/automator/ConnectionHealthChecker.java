@@ -0,0 +1,213 @@
+package automator;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background validator for the schema pools.
+ * <p>
+ * Every db.health.interval_ms a daemon thread borrows one connection from each open {@link DataBase}
+ * and calls {@link Connection#isValid(int)}. An invalid connection means the sockets behind the pool
+ * have gone stale (e.g. RDS dropped them while idle), so the pool's connections are evicted and
+ * replaced; if no connection can be borrowed at all, the whole pool is reopened with
+ * {@link DataBase#reconnect()}. A borrow that times out because every connection is in use only means
+ * the pool is busy, so it is counted and logged but never triggers a reconnect, which would close the
+ * pool under the threads using it. Besides the DBFactory singletons it checks the per-environment pools
+ * {@link EnvironmentContext} registers. Reconnect counts and latencies are kept per pool name for the logs.
+ */
+public class ConnectionHealthChecker {
+    private static ScheduledExecutorService scheduler;
+    private static final Map<String, Health> health = new TreeMap<>();
+    private static final Set<DataBase> registered = ConcurrentHashMap.newKeySet();
+
+    private static final class Health {
+        long checks;
+        long failures;
+        long busy;
+        long reconnects;
+        long lastCheckMs;
+        long maxCheckMs;
+        long lastReconnectMs;
+    }
+
+    private ConnectionHealthChecker() {}
+
+    // Idempotent; the first call starts the checker thread
+    public static synchronized void start() {
+        if (scheduler != null || !ConfigManager.isDbHealthCheckEnabled()) {
+            return;
+        }
+        long intervalMs = ConfigManager.getDbHealthIntervalMs();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "db-health-checker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(ConnectionHealthChecker::checkAll, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        Logger.logInfo("Database health checker started (every " + intervalMs + " ms)");
+    }
+
+    public static synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    // Handles created outside DBFactory (see EnvironmentContext) are only checked once registered
+    static void register(DataBase database) {
+        registered.add(database);
+    }
+
+    // Checks every pool that is currently open; handles that were never used are left alone
+    public static void checkAll() {
+        for (DBFactory.CONNECTION_NAMES schema : DBFactory.CONNECTION_NAMES.values()) {
+            try {
+                checkIfOpen(DBFactory.getDataBase(schema));
+            } catch (RuntimeException e) {
+                Logger.logError("Health check of " + schema.getDisplayName() + " database failed: " + e.getMessage());
+            }
+        }
+        for (DataBase database : registered) {
+            checkIfOpen(database);
+        }
+    }
+
+    private static void checkIfOpen(DataBase database) {
+        try {
+            if (database.isConnectionOpen()) {
+                check(database);
+            }
+        } catch (SQLException | RuntimeException e) {
+            Logger.logError("Health check of " + label(database) + " failed: " + e.getMessage());
+        }
+    }
+
+    // Returns true when the pool was healthy or has been brought back
+    public static boolean check(DataBase database) {
+        String poolName = database.getPoolName();
+        long start = System.nanoTime();
+        boolean valid;
+        boolean borrowed = true;
+        boolean busy = false;
+        try (Connection conn = database.getConnection()) {
+            valid = conn.isValid(ConfigManager.getDbHealthValidationTimeoutSeconds());
+        } catch (SQLException e) {
+            busy = isPoolExhausted(e);
+            valid = false;
+            borrowed = false;
+        }
+        long checkMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        synchronized (health) {
+            Health stats = health.computeIfAbsent(poolName, key -> new Health());
+            stats.checks++;
+            stats.lastCheckMs = checkMs;
+            stats.maxCheckMs = Math.max(stats.maxCheckMs, checkMs);
+            if (busy) {
+                stats.busy++;
+            } else if (!valid) {
+                stats.failures++;
+            }
+        }
+        if (valid) {
+            return true;
+        }
+        if (busy) {
+            Logger.logInfo(label(database) + " pool is busy, no connection free for the health check");
+            return true;
+        }
+
+        Logger.logError(label(database) + " connection is stale, reconnecting");
+        long reconnectStart = System.nanoTime();
+        boolean recovered;
+        if (borrowed) {
+            // The pool itself works; replace its dead sockets and make sure a fresh one is usable
+            database.evictConnections();
+            recovered = isValid(database);
+        } else {
+            recovered = false;
+        }
+        if (!recovered) {
+            try {
+                database.reconnect();
+                recovered = isValid(database);
+            } catch (SQLException e) {
+                Logger.logError("Reconnecting " + label(database) + " failed: " + e.getMessage());
+            }
+        }
+        long reconnectMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - reconnectStart);
+
+        synchronized (health) {
+            Health stats = health.get(poolName);
+            stats.reconnects++;
+            stats.lastReconnectMs = reconnectMs;
+        }
+        Logger.logInfo(label(database) + " " + (recovered ? "reconnected" : "still unavailable")
+                + " after " + reconnectMs + " ms");
+        return recovered;
+    }
+
+    /**
+     * Hikari reports a borrow timeout as SQLTransientConnectionException. Without a cause every connection
+     * was simply in use; with one, the pool could not open connections, which is a real failure.
+     */
+    static boolean isPoolExhausted(SQLException e) {
+        return e instanceof SQLTransientConnectionException && e.getCause() == null;
+    }
+
+    public static long getReconnectCount(DataBase database) {
+        synchronized (health) {
+            Health stats = health.get(database.getPoolName());
+            return stats == null ? 0 : stats.reconnects;
+        }
+    }
+
+    // e.g. "LENDING[checks=40, ...], ops-03-LENDING[checks=40, failures=1, busy=0, reconnects=1, lastCheck=3 ms, maxCheck=41 ms, lastReconnect=220 ms]"
+    public static String describe() {
+        StringBuilder sb = new StringBuilder();
+        synchronized (health) {
+            for (Map.Entry<String, Health> entry : health.entrySet()) {
+                Health stats = entry.getValue();
+                if (sb.length() > 0) {
+                    sb.append(", ");
+                }
+                sb.append(entry.getKey())
+                        .append("[checks=").append(stats.checks)
+                        .append(", failures=").append(stats.failures)
+                        .append(", busy=").append(stats.busy)
+                        .append(", reconnects=").append(stats.reconnects)
+                        .append(", lastCheck=").append(stats.lastCheckMs).append(" ms")
+                        .append(", maxCheck=").append(stats.maxCheckMs).append(" ms")
+                        .append(", lastReconnect=").append(stats.lastReconnectMs).append(" ms]");
+            }
+        }
+        return sb.length() == 0 ? "no health checks yet" : sb.toString();
+    }
+
+    public static void logStats() {
+        Logger.logInfo("Database health: " + describe());
+    }
+
+    // e.g. "Lending database (ops-03)"
+    private static String label(DataBase database) {
+        return database.getConnectionName().getDisplayName() + " database (" + database.getEnvironment() + ")";
+    }
+
+    // A pool too busy to lend a connection is not broken, so it does not count as invalid here either
+    private static boolean isValid(DataBase database) {
+        try (Connection conn = database.getConnection()) {
+            return conn.isValid(ConfigManager.getDbHealthValidationTimeoutSeconds());
+        } catch (SQLException e) {
+            return isPoolExhausted(e);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package automator;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Owns one pooled DataSource per schema so that every DB access path borrows an already
+ * authenticated connection instead of paying a fresh TCP + auth handshake to RDS.
+ * Pool sizing, idle eviction and validation are driven by the db.pool.* keys in config.properties.
+ */
+public class ConnectionPool {
+    private static final Map<String, HikariDataSource> pools = new ConcurrentHashMap<>();
+    // One lock per pool so different schemas can start up concurrently
+    private static final Map<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+    private ConnectionPool() {}
+
+    // Returns the pool registered under poolName, creating it when missing or pointing at another URL/user
+    public static HikariDataSource open(String poolName, String databaseUrl, String user, String password)
+            throws SQLException {
+        ReentrantLock lock = locks.computeIfAbsent(poolName, name -> new ReentrantLock());
+        lock.lock();
+        try {
+            return openLocked(poolName, databaseUrl, user, password);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static HikariDataSource openLocked(String poolName, String databaseUrl, String user, String password)
+            throws SQLException {
+        HikariDataSource existing = pools.get(poolName);
+        if (existing != null && !existing.isClosed()
+                && databaseUrl.equals(existing.getJdbcUrl()) && user.equals(existing.getUsername())) {
+            return existing;
+        }
+        if (existing != null) {
+            existing.close();
+        }
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(poolName + "-pool");
+        config.setDriverClassName("com.mysql.cj.jdbc.Driver");
+        config.setJdbcUrl(databaseUrl);
+        config.setUsername(user);
+        config.setPassword(password);
+        config.setMinimumIdle(Math.min(ConfigManager.getDbPoolMinIdle(), ConfigManager.getDbPoolMaxSize()));
+        config.setMaximumPoolSize(ConfigManager.getDbPoolMaxSize());
+        config.setIdleTimeout(ConfigManager.getDbPoolIdleTimeoutMs());
+        config.setMaxLifetime(ConfigManager.getDbPoolMaxLifetimeMs());
+        config.setConnectionTimeout(ConfigManager.getDbPoolConnectionTimeoutMs());
+        config.setValidationTimeout(ConfigManager.getDbPoolValidationTimeoutMs());
+
+        // Let Connector/J keep prepared statements per physical connection (see StatementCache)
+        config.addDataSourceProperty("cachePrepStmts", ConfigManager.isStatementCacheEnabled());
+        config.addDataSourceProperty("useServerPrepStmts", ConfigManager.isServerSidePrepareEnabled());
+        config.addDataSourceProperty("prepStmtCacheSize", ConfigManager.getStatementCacheSize());
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", ConfigManager.getStatementCacheSqlLimit());
+        // Send addBatch/executeBatch as one round-trip per batch (see VkycFixtures)
+        config.addDataSourceProperty("rewriteBatchedStatements", ConfigManager.isRewriteBatchedStatementsEnabled());
+        // Honour Statement.setFetchSize with a server-side cursor instead of buffering the whole result
+        config.addDataSourceProperty("useCursorFetch", true);
+
+        try {
+            HikariDataSource dataSource = new HikariDataSource(config);
+            pools.put(poolName, dataSource);
+            return dataSource;
+        } catch (RuntimeException e) {
+            // Hikari reports pool start-up failures (bad credentials, unreachable host) as unchecked exceptions
+            throw new SQLException("Unable to start connection pool " + poolName + ": " + e.getMessage(), e);
+        }
+    }
+
+    // Same lock as open(), so a concurrent reopen never hands out the DataSource being closed here
+    public static void close(String poolName) {
+        ReentrantLock lock = locks.computeIfAbsent(poolName, name -> new ReentrantLock());
+        lock.lock();
+        try {
+            HikariDataSource dataSource = pools.remove(poolName);
+            if (dataSource != null && !dataSource.isClosed()) {
+                dataSource.close();
+                Logger.logInfo(poolName + " connection pool closed.");
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static void closeAll() {
+        for (String poolName : pools.keySet()) {
+            close(poolName);
+        }
+    }
+
+    // e.g. "Lending-pool[active=1, idle=2, total=3, waiting=0]"
+    public static String describe(HikariDataSource dataSource) {
+        if (dataSource == null || dataSource.isClosed()) {
+            return "closed";
+        }
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        if (pool == null) {
+            return dataSource.getPoolName() + "[starting]";
+        }
+        return dataSource.getPoolName() + "[active=" + pool.getActiveConnections()
+                + ", idle=" + pool.getIdleConnections()
+                + ", total=" + pool.getTotalConnections()
+                + ", waiting=" + pool.getThreadsAwaitingConnection() + "]";
+    }
+
+    public static void logMetrics() {
+        for (HikariDataSource dataSource : pools.values()) {
+            Logger.logInfo("Pool metrics: " + describe(dataSource));
+        }
+    }
+}
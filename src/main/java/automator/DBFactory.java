@@ -6,58 +6,89 @@ import java.sql.SQLException;
 public class DBFactory {
 
     public enum CONNECTION_NAMES {
-        LENDING, CREDIT, ELECTRON,DATA,CALLING_INFRA,PORTALDB
+        LENDING("Lending", "lending", "environment"),
+        CREDIT("Credit", "credit", "environment"),
+        ELECTRON("Electron", "electron", "environment"),
+        DATA("Data", "data", "environment"),
+        CALLING_INFRA("CallingInfra", "callinginfra", "calling_environment"),
+        PORTALDB("Portal", "portal", "environment");
+
+        private final String displayName;
+        private final String configKey;
+        private final String environmentProperty;
+
+        CONNECTION_NAMES(String displayName, String configKey, String environmentProperty) {
+            this.displayName = displayName;
+            this.configKey = configKey;
+            this.environmentProperty = environmentProperty;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        // e.g. "ops-05" for LENDING, "ops-02" for CALLING_INFRA
+        public String getEnvironment() {
+            return ConfigManager.getProperty(environmentProperty);
+        }
+
+        // False for schemas that live in their own environment (CallingInfra follows calling_environment)
+        public boolean isEnvironmentScoped() {
+            return environmentProperty.equals("environment");
+        }
+
+        public String getUrl() {
+            return getUrl(getEnvironment());
+        }
+
+        public String getUserName() {
+            return getUserName(getEnvironment());
+        }
+
+        public String getPassword() {
+            return getPassword(getEnvironment());
+        }
+
+        public String getUrl(String environment) {
+            return ConfigManager.getProperty(environment + "." + configKey);
+        }
+
+        public String getUserName(String environment) {
+            return ConfigManager.getProperty(environment + "." + configKey + "_database_username");
+        }
+
+        public String getPassword(String environment) {
+            return ConfigManager.getProperty(environment + "." + configKey + "_database_password");
+        }
     }
 
-    public DataBase getInstance(CONNECTION_NAMES connectionNames, String database_url,
-                                String user_name, String password) throws SQLException, ClassNotFoundException {
+    // Returns the singleton handle for a schema without connecting it; it connects on first getConnection()
+    public static DataBase getDataBase(CONNECTION_NAMES connectionNames) {
         switch (connectionNames) {
-
-            case LENDING: {
-                DataBase lending = LendingDataBaseConnection.getInstance();
-                lending.setConnection(database_url, user_name, password);
-                return lending;
-            }
-
-            case CREDIT: {
-                DataBase credit = CreditDataBaseConnection.getInstance();
-                credit.setConnection(database_url, user_name, password);
-                return credit;
-            }
-
-
-
-            case DATA: {
-                DataBase data = DataDataBaseConnection.getInstance();
-                data.setConnection(database_url, user_name, password);
-                return data;
-            }
-
-            case ELECTRON: {
-                DataBase electron = ElectronDataBaseConnection.getInstance();
-                electron.setConnection(database_url, user_name, password);
-                return electron;
-            }
-
-            case CALLING_INFRA: {
-                DataBase calling_infra = CallingInfraDataBaseConnection.getInstance();
-                calling_infra.setConnection(
-                        database_url, user_name, password
-                );
-                return calling_infra;
-            }
-
-            case PORTALDB: {
-                DataBase portaldb = PortalDataBaseConnection.getInstance();
-                portaldb.setConnection(
-                        database_url, user_name, password
-                );
-                return portaldb;
-            }
-            default: {
+            case LENDING:
+                return LendingDataBaseConnection.getInstance();
+            case CREDIT:
+                return CreditDataBaseConnection.getInstance();
+            case DATA:
+                return DataDataBaseConnection.getInstance();
+            case ELECTRON:
+                return ElectronDataBaseConnection.getInstance();
+            case CALLING_INFRA:
+                return CallingInfraDataBaseConnection.getInstance();
+            case PORTALDB:
+                return PortalDataBaseConnection.getInstance();
+            default:
                 return null;
-            }
         }
     }
 
+    public DataBase getInstance(CONNECTION_NAMES connectionNames, String database_url,
+                                String user_name, String password) throws SQLException, ClassNotFoundException {
+        DataBase dataBase = getDataBase(connectionNames);
+        if (dataBase != null) {
+            dataBase.setConnection(database_url, user_name, password);
+        }
+        return dataBase;
+    }
+
 }
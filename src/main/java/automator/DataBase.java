@@ -1,29 +1,144 @@
 package automator;
 
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetProvider;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 
 public abstract class DataBase {
-    public Connection connection;
-    protected Statement statement;
+    private final DBFactory.CONNECTION_NAMES connectionName;
+    protected volatile HikariDataSource dataSource;
+
+    // Connection settings, remembered so the handle can (re)connect lazily
+    private String databaseUrl;
+    private String user;
+    private String password;
+
+    protected DataBase(DBFactory.CONNECTION_NAMES connectionName) {
+        this.connectionName = connectionName;
+    }
 
     public abstract void setConnection(String databaseUrl, String user, String password) throws SQLException, ClassNotFoundException;
 
-    public abstract ResultSet getQueryResult(String query) throws SQLException // read
-    ;
+    public DBFactory.CONNECTION_NAMES getConnectionName() {
+        return connectionName;
+    }
+
+    // Environment whose config.properties entries this handle connects with
+    public String getEnvironment() {
+        return connectionName.getEnvironment();
+    }
+
+    // Name of the ConnectionPool entry backing this handle; health and metrics are reported under it too
+    protected String getPoolName() {
+        return connectionName.name();
+    }
+
+    // Remembers where to connect without opening anything yet
+    public synchronized void configure(String databaseUrl, String user, String password) {
+        this.databaseUrl = databaseUrl;
+        this.user = user;
+        this.password = password;
+    }
 
-    public abstract ResultSet updateQuery(String query) throws SQLException;
+    // Opens (or reuses) the pooled DataSource backing this schema
+    protected void openPool(String databaseUrl, String user, String password) throws SQLException {
+        configure(databaseUrl, user, password);
+        dataSource = ConnectionPool.open(getPoolName(), databaseUrl, user, password);
+    }
+
+    /**
+     * Borrows a connection from this schema's pool, connecting on first use. Callers must close it
+     * (try-with-resources), which hands it back to the pool instead of tearing down the socket.
+     * With db.metrics.enabled the connection is instrumented (see JdbcInstrumentation).
+     */
+    public Connection getConnection() throws SQLException {
+        HikariDataSource pool = dataSource;
+        if (pool == null || pool.isClosed()) {
+            pool = connectLazily();
+        }
+        if (!ConfigManager.isQueryMetricsEnabled()) {
+            return pool.getConnection();
+        }
+        long start = System.nanoTime();
+        Connection conn = pool.getConnection();
+        QueryMetrics.recordBorrow(getPoolName(), System.nanoTime() - start);
+        return JdbcInstrumentation.wrap(conn, getPoolName());
+    }
+
+    private synchronized HikariDataSource connectLazily() throws SQLException {
+        if (dataSource != null && !dataSource.isClosed()) {
+            return dataSource;
+        }
+        // Nobody configured this handle explicitly, so fall back to config.properties
+        if (databaseUrl == null) {
+            String environment = getEnvironment();
+            configure(connectionName.getUrl(environment), connectionName.getUserName(environment),
+                    connectionName.getPassword(environment));
+        }
+        if (databaseUrl == null || databaseUrl.isEmpty()) {
+            throw new SQLException("No database URL found for " + connectionName.getDisplayName() + " (" + getEnvironment() + ")");
+        }
+        try {
+            setConnection(databaseUrl, user, password);
+        } catch (ClassNotFoundException e) {
+            throw new SQLException(e.getMessage(), e);
+        }
+        Logger.logInfo(connectionName.getDisplayName() + " database (" + getEnvironment() + ") connected on first use");
+        return dataSource;
+    }
+
+    // Drops the current pool and opens a fresh one with the same settings (see ConnectionHealthChecker)
+    public synchronized void reconnect() throws SQLException {
+        ConnectionPool.close(getPoolName());
+        dataSource = null;
+        connectLazily();
+    }
+
+    // Marks every pooled connection for replacement; idle ones are closed right away, busy ones on return
+    public void evictConnections() {
+        HikariDataSource pool = dataSource;
+        if (pool != null && !pool.isClosed() && pool.getHikariPoolMXBean() != null) {
+            pool.getHikariPoolMXBean().softEvictConnections();
+        }
+    }
+
+    // read; the rows are copied into a disconnected CachedRowSet so the connection can go back to the pool
+    public ResultSet getQueryResult(String query) throws SQLException {
+        try (Connection conn = getConnection();
+             Statement statement = conn.createStatement();
+             ResultSet resultSet = statement.executeQuery(query)) {
+            CachedRowSet rows = RowSetProvider.newFactory().createCachedRowSet();
+            rows.populate(resultSet);
+            return rows;
+        }
+    }
+
+    public ResultSet updateQuery(String query) throws SQLException {
+        try (Connection conn = getConnection();
+             Statement statement = conn.createStatement()) {
+            statement.executeUpdate(query);
+        } catch (Exception e) {
+        }
+        return null;
+    }
 
     public void closeConnection() throws SQLException {
-        if (connection != null) {
-            connection.close();
+        if (dataSource != null && !dataSource.isClosed()) {
+            ConnectionPool.close(getPoolName());
             System.out.println(this.getClass().getSimpleName() + " Connection closed.");
         }
     }
 
     public boolean isConnectionOpen() throws SQLException {
-        return connection != null && !connection.isClosed();
+        return dataSource != null && !dataSource.isClosed();
+    }
+
+    public String getPoolMetrics() {
+        return ConnectionPool.describe(dataSource);
     }
-}
\ No newline at end of file
+}
@@ -1,104 +1,198 @@
 package automator;
 
-import java.io.FileInputStream;
-import java.io.IOException;
 import java.sql.*;
-import java.util.Properties;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
 
 public class DatabaseConnection {
 
-    private static Connection connection;
-    // A static Properties object to hold config details (loaded once)
-    private static Properties dbProps;
+    // Schemas that came up successfully, so repeated calls reuse them instead of reconnecting
+    private static final Map<DBFactory.CONNECTION_NAMES, DataBase> connectedSchemas = new ConcurrentHashMap<>();
 
-    // This method connects to the necessary databases based on the properties
+    // This method connects to every configured database (Lending, Credit, Electron, Data, Portal
+    // and, optionally, CallingInfra). Prefer connectToDatabases(getClass()) with @RequiresSchemas.
     public static boolean connectToDatabases() {
-        dbProps = new Properties();
-        try {
-            // Load the properties file once and keep it in dbProps
-            FileInputStream input = new FileInputStream("src/main/resources/config.properties");
-            dbProps.load(input);
+        return connectToDatabases(DBFactory.CONNECTION_NAMES.values());
+    }
 
-            // Fetch environment from the properties file
-            String environment = dbProps.getProperty("environment");
+    // Warms only the schemas the test class declares through @RequiresSchemas;
+    // without the annotation every schema is warmed, as before.
+    public static boolean connectToDatabases(Class<?> testClass) {
+        RequiresSchemas required = testClass.getAnnotation(RequiresSchemas.class);
+        if (required == null) {
+            return connectToDatabases();
+        }
+        return connectToDatabases(required.value());
+    }
 
-            Logger.logInfo("Connecting to environment: " + environment);
+    // All requested schemas are opened concurrently on virtual threads; calling it again is cheap.
+    public static synchronized boolean connectToDatabases(DBFactory.CONNECTION_NAMES... schemas) {
+        List<DBFactory.CONNECTION_NAMES> targets = new ArrayList<>();
+        for (DBFactory.CONNECTION_NAMES schema : schemas) {
+            // CallingInfra lives in its own environment (calling_environment) and is optional
+            if (schema == DBFactory.CONNECTION_NAMES.CALLING_INFRA) {
+                String callingEnvironment = schema.getEnvironment();
+                if (callingEnvironment == null || callingEnvironment.isEmpty()) {
+                    Logger.logInfo("No calling_environment set in properties.");
+                    continue;
+                }
+                if (schema.getUrl() == null) {
+                    Logger.logInfo("No callinginfra database configured for environment: " + callingEnvironment);
+                    continue;
+                }
+            }
+            targets.add(schema);
+        }
 
-            // Determine the correct database URLs based on the environment
-            String lendingDbUrl = dbProps.getProperty(environment + ".lending");
-            String creditDbUrl = dbProps.getProperty(environment + ".credit");
-            String electronDbUrl = dbProps.getProperty(environment + ".electron");
-            String dataDbUrl = dbProps.getProperty(environment + ".data");
-            String portalDbUrl = dbProps.getProperty(environment + ".portal");
+        List<DBFactory.CONNECTION_NAMES> pending = new ArrayList<>();
+        for (DBFactory.CONNECTION_NAMES target : targets) {
+            if (!isAlreadyConnected(target)) {
+                pending.add(target);
+            }
+        }
+        if (pending.isEmpty()) {
+            return requiredSchemasConnected(targets);
+        }
 
-            // Connect to each database (Lending, Credit, Electron, Data, Portal)
-            boolean lendingConnection = connectToDatabase("Lending", LendingDataBaseConnection.getInstance(), lendingDbUrl,
-                    dbProps.getProperty(environment + ".lending_database_username"),
-                    dbProps.getProperty(environment + ".lending_database_password"));
-            boolean creditConnection = connectToDatabase("Credit", CreditDataBaseConnection.getInstance(), creditDbUrl,
-                    dbProps.getProperty(environment + ".credit_database_username"),
-                    dbProps.getProperty(environment + ".credit_database_password"));
-            boolean electronConnection = connectToDatabase("Electron", ElectronDataBaseConnection.getInstance(), electronDbUrl,
-                    dbProps.getProperty(environment + ".electron_database_username"),
-                    dbProps.getProperty(environment + ".electron_database_password"));
-            boolean dataConnection = connectToDatabase("Data", DataDataBaseConnection.getInstance(), dataDbUrl,
-                    dbProps.getProperty(environment + ".data_database_username"),
-                    dbProps.getProperty(environment + ".data_database_password"));
-            boolean portalConnection = connectToDatabase("Portal", PortalDataBaseConnection.getInstance(), portalDbUrl,
-                    dbProps.getProperty(environment + ".portal_database_username"),
-                    dbProps.getProperty(environment + ".portal_database_password"));
+        Logger.logInfo("Connecting to environment: " + ConfigManager.getEnvironment() + " " + pending);
+        Map<String, Long> timings = connectConcurrently(pending);
+        logStartupReport(timings);
 
-            // Optionally, connect to CallingInfra database if configured.
-            String callingEnvironment = dbProps.getProperty("calling_environment");
-            if (callingEnvironment != null && !callingEnvironment.isEmpty()) {
-                String callingInfraDbUrl = dbProps.getProperty(callingEnvironment + ".callinginfra");
-                if (callingInfraDbUrl != null) {
-                    boolean callingInfraConnection = connectToDatabase(
-                            "CallingInfra", CallingInfraDataBaseConnection.getInstance(),
-                            callingInfraDbUrl,
-                            dbProps.getProperty(callingEnvironment + ".callinginfra_database_username"),
-                            dbProps.getProperty(callingEnvironment + ".callinginfra_database_password")
-                    );
-                    if (callingInfraConnection) {
-                        Logger.logInfo("CallingInfra database connected successfully for environment: " + callingEnvironment);
-                    } else {
-                        Logger.logInfo("Error connecting to CallingInfra database for environment: " + callingEnvironment);
-                    }
-                } else {
-                    Logger.logInfo("No callinginfra database configured for environment: " + callingEnvironment);
-                }
+        String callingInfra = DBFactory.CONNECTION_NAMES.CALLING_INFRA.getDisplayName();
+        if (timings.containsKey(callingInfra)) {
+            String callingEnvironment = DBFactory.CONNECTION_NAMES.CALLING_INFRA.getEnvironment();
+            if (timings.get(callingInfra) >= 0) {
+                Logger.logInfo("CallingInfra database connected successfully for environment: " + callingEnvironment);
             } else {
-                Logger.logInfo("No calling_environment set in properties.");
+                Logger.logInfo("Error connecting to CallingInfra database for environment: " + callingEnvironment);
             }
+        }
 
-            return lendingConnection && creditConnection && electronConnection && dataConnection && portalConnection;
+        ConnectionPool.logMetrics();
+        // Keeps the pools opened above from failing late when RDS silently drops idle sockets
+        ConnectionHealthChecker.start();
+        return requiredSchemasConnected(targets);
+    }
 
-        } catch (IOException | SQLException | ClassNotFoundException e) {
-            Logger.logInfo("Error during database connection: " + e.getMessage());
+    private static boolean isAlreadyConnected(DBFactory.CONNECTION_NAMES schema) {
+        try {
+            DataBase database = connectedSchemas.get(schema);
+            return database != null && database.isConnectionOpen();
+        } catch (SQLException e) {
             return false;
         }
     }
 
-    // This method is used in your OpsflowAutomation to fetch the review status
-    public static String fetchUserDataReviewStatus(String loanAppID) {
-        String query = "SELECT user_data_review_status FROM loan_application WHERE id = ?";
-        String reviewStatus = null;
-
-        try (Connection conn = LendingDataBaseConnection.getInstance().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
+    // CallingInfra is optional; every other schema has to be up
+    private static boolean requiredSchemasConnected(List<DBFactory.CONNECTION_NAMES> targets) {
+        for (DBFactory.CONNECTION_NAMES target : targets) {
+            if (target != DBFactory.CONNECTION_NAMES.CALLING_INFRA && !connectedSchemas.containsKey(target)) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-            stmt.setString(1, loanAppID);
-            Logger.logInfo("Executing query: " + query + " with loanAppID = " + loanAppID);
+    // Opens every target on its own virtual thread; returns how long each one took (-1 when it failed or timed out)
+    private static Map<String, Long> connectConcurrently(List<DBFactory.CONNECTION_NAMES> targets) {
+        long timeoutMs = ConfigManager.getDbConnectTimeoutMs();
+        long start = System.nanoTime();
+        Map<String, Long> timings = new LinkedHashMap<>();
+        Map<String, Future<Long>> futures = new LinkedHashMap<>();
+        // Whoever gets here first decides a schema's fate: the connect task (connected in time) or the
+        // deadline below (timed out), so a pool that finishes opening after its deadline is closed, not kept
+        Map<DBFactory.CONNECTION_NAMES, Boolean> decided = new ConcurrentHashMap<>();
+        Map<String, DBFactory.CONNECTION_NAMES> schemasByName = new LinkedHashMap<>();
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            for (DBFactory.CONNECTION_NAMES target : targets) {
+                DataBase database = DBFactory.getDataBase(target);
+                schemasByName.put(target.getDisplayName(), target);
+                futures.put(target.getDisplayName(), executor.submit(() -> {
+                    long schemaStart = System.nanoTime();
+                    boolean connected = connectToDatabase(target.getDisplayName(), database,
+                            target.getUrl(), target.getUserName(), target.getPassword());
+                    if (!connected) {
+                        return -1L;
+                    }
+                    if (decided.putIfAbsent(target, Boolean.TRUE) != null) {
+                        Logger.logInfo(target.getDisplayName() + " database connected after its deadline; closing it");
+                        database.closeConnection();
+                        return -1L;
+                    }
+                    connectedSchemas.put(target, database);
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - schemaStart);
+                }));
+            }
 
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    reviewStatus = rs.getString("user_data_review_status");
-                    Logger.logInfo("Fetched review status: " + reviewStatus);
-                } else {
-                    Logger.logError("No data found for loan application ID: " + loanAppID);
+            // Every schema shares the same deadline, measured from when they were all started
+            long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            for (Map.Entry<String, Future<Long>> entry : futures.entrySet()) {
+                try {
+                    long remaining = Math.max(0, deadline - System.nanoTime());
+                    timings.put(entry.getKey(), entry.getValue().get(remaining, TimeUnit.NANOSECONDS));
+                } catch (TimeoutException e) {
+                    if (decided.putIfAbsent(schemasByName.get(entry.getKey()), Boolean.FALSE) != null) {
+                        // Connected right at the deadline; its result is about to be returned
+                        timings.put(entry.getKey(), getQuietly(entry.getValue()));
+                        continue;
+                    }
+                    entry.getValue().cancel(true);
+                    Logger.logError(entry.getKey() + " database did not connect within " + timeoutMs + " ms");
+                    timings.put(entry.getKey(), -1L);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    decided.putIfAbsent(schemasByName.get(entry.getKey()), Boolean.FALSE);
+                    timings.put(entry.getKey(), -1L);
+                } catch (ExecutionException e) {
+                    Logger.logError("Error connecting to " + entry.getKey() + " database: " + e.getCause().getMessage());
+                    timings.put(entry.getKey(), -1L);
                 }
             }
+        } finally {
+            // Don't wait for handshakes that already missed the deadline; they close their own pool if they finish
+            executor.shutdownNow();
+        }
+        timings.put("Total (wall clock)", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return timings;
+    }
+
+    private static long getQuietly(Future<Long> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1L;
+        } catch (ExecutionException e) {
+            return -1L;
+        }
+    }
+
+    private static void logStartupReport(Map<String, Long> timings) {
+        StringBuilder report = new StringBuilder("Database startup timings:");
+        for (Map.Entry<String, Long> entry : timings.entrySet()) {
+            report.append(System.lineSeparator()).append(String.format("  %-20s %s", entry.getKey(),
+                    entry.getValue() < 0 ? "FAILED" : entry.getValue() + " ms"));
+        }
+        Logger.logInfo(report.toString());
+    }
 
+    // This method is used in your OpsflowAutomation to fetch the review status
+    public static String fetchUserDataReviewStatus(String loanAppID) {
+        String reviewStatus = null;
+        Logger.logInfo("Fetching review status with loanAppID = " + loanAppID);
+        try {
+            LoanApplicationLookup.LoanApplication loanApplication = LoanApplicationLookup.fetch(loanAppID);
+            if (loanApplication != null) {
+                reviewStatus = loanApplication.reviewStatus();
+                Logger.logInfo("Fetched review status: " + reviewStatus);
+            } else {
+                Logger.logError("No data found for loan application ID: " + loanAppID);
+            }
         } catch (SQLException e) {
             Logger.logError("Error fetching user data review status: " + e.getMessage());
         }
@@ -106,34 +200,15 @@ public class DatabaseConnection {
         return reviewStatus;
     }
 
-    // New helper method: polls the DB using config properties.
+    // New helper method: polls the DB through the pooled Lending connection.
     public static String verifyDatabaseStatus(String applicationId) {
-        // Ensure properties are loaded (they should be loaded in connectToDatabases)
-        if (dbProps == null) {
-            dbProps = new Properties();
-            try {
-                FileInputStream input = new FileInputStream("src/main/resources/config.properties");
-                dbProps.load(input);
-            } catch (IOException e) {
-                Logger.logError("Error loading config.properties: " + e.getMessage());
-                return null;
-            }
-        }
-        String environment = dbProps.getProperty("environment");
-        String url = dbProps.getProperty(environment + ".lending");
-        String username = dbProps.getProperty(environment + ".lending_database_username");
-        String password = dbProps.getProperty(environment + ".lending_database_password");
-
         String reviewStatus = null;
-        try (Connection conn = DriverManager.getConnection(url, username, password);
-             PreparedStatement stmt = conn.prepareStatement("SELECT user_data_review_status FROM loan_application WHERE id = ?")) {
-            stmt.setString(1, applicationId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    reviewStatus = rs.getString("user_data_review_status");
-                } else {
-                    Logger.logError("No record found for application ID: " + applicationId);
-                }
+        try {
+            LoanApplicationLookup.LoanApplication loanApplication = LoanApplicationLookup.fetch(applicationId);
+            if (loanApplication != null) {
+                reviewStatus = loanApplication.reviewStatus();
+            } else {
+                Logger.logError("No record found for application ID: " + applicationId);
             }
         } catch (SQLException e) {
             Logger.logError("Database error: " + e.getMessage());
@@ -141,7 +216,16 @@ public class DatabaseConnection {
         return reviewStatus;
     }
 
-    // Other methods (executeQuery, executeUpdate, isConnectionValid, etc.) remain unchanged
+    // Test fixture for DB-mode state machine edges; returns the number of rows moved (0 if the status had changed)
+    public static int updateReviewStatus(String loanAppID, String fromStatus, String toStatus) throws SQLException {
+        try (Connection conn = LendingDataBaseConnection.getInstance().getConnection();
+             PreparedStatement stmt = StatementCache.prepare(conn, Queries.UPDATE_REVIEW_STATUS_QUERY)) {
+            stmt.setString(1, toStatus);
+            stmt.setString(2, loanAppID);
+            stmt.setString(3, fromStatus);
+            return stmt.executeUpdate();
+        }
+    }
 
     // Helper function to connect and print success message
     private static boolean connectToDatabase(String dbName, DataBase database, String url, String username, String password)
@@ -163,84 +247,35 @@ public class DatabaseConnection {
         }
     }
 
-    // This method will execute the SQL query and return the ResultSet
-    public static ResultSet executeQuery(String query) {
-        try {
-            if (connection == null || connection.isClosed()) {
-                Logger.logError("Database connection is not established.");
-                return null;
-            }
-            Statement stmt = connection.createStatement();
-            return stmt.executeQuery(query);
-        } catch (SQLException e) {
-            Logger.logError("Error executing query: " + e.getMessage());
-            return null;
-        }
-    }
-
-    // This method will execute an update query (for INSERT, UPDATE, DELETE)
-    public static int executeUpdate(String query) {
-        try {
-            if (connection == null || connection.isClosed()) {
-                Logger.logError("Database connection is not established.");
-                return -1;
-            }
-            Statement stmt = connection.createStatement();
-            return stmt.executeUpdate(query);
-        } catch (SQLException e) {
-            Logger.logError("Error executing update query: " + e.getMessage());
-            return -1;
-        }
-    }
-
+    // Validates a pooled Lending connection with Connection.isValid (no query, nothing to leak)
     public static boolean isConnectionValid() {
-        try {
-            String testQuery = "SELECT 1";
-            ResultSet resultSet = executeQuery(testQuery);
-            return resultSet != null;
-        } catch (Exception e) {
+        try (Connection conn = getLendingDBConnection()) {
+            return conn.isValid(ConfigManager.getDbHealthValidationTimeoutSeconds());
+        } catch (SQLException e) {
             Logger.logError("Database connection check failed: " + e.getMessage());
             return false;
         }
-
     }
     public static String fetchloanAppNo(String loanAppID) throws SQLException, ClassNotFoundException {
-        String environment = dbProps.getProperty("environment");
-        String lendingDbUrl = dbProps.getProperty(environment + ".lending");
-        connectToDatabase("Lending", LendingDataBaseConnection.getInstance(), lendingDbUrl,
-                dbProps.getProperty(environment + ".lending_database_username"),
-                dbProps.getProperty(environment + ".lending_database_password"));
-        String query = "select * from loan_application where id = ?";
         String loan_app_no = null;
-        try (Connection conn = LendingDataBaseConnection.getInstance().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)){
-
-        stmt.setString(1, loanAppID);
-        Logger.logInfo("Executing query: " + query + " with loanAppID = " + loanAppID);
-
-        try (ResultSet rs = stmt.executeQuery()) {
-            if (rs.next()) {
-                loan_app_no = rs.getString("loan_application_no");
+        Logger.logInfo("Fetching loan app no with loanAppID = " + loanAppID);
+        try {
+            // loan_application_no never changes, so this is usually served from memory
+            loan_app_no = LoanIdentifierCache.getLoanAppNo(loanAppID);
+            if (loan_app_no != null) {
                 Logger.logInfo("Fetched loan app no: " + loan_app_no);
             } else {
                 Logger.logError("No data found for loan application ID: " + loanAppID);
             }
-        }
         } catch (SQLException e) {
             Logger.logError("Error executing" + e.getMessage());
         }
-    return loan_app_no;
-
+        return loan_app_no;
     }
+
     public static void nachDocQueueEntry(String loanAppNo) throws SQLException, ClassNotFoundException {
-        String environment = dbProps.getProperty("environment");
-        String lendingDbUrl = dbProps.getProperty(environment + ".lending");
-        connectToDatabase("Lending", LendingDataBaseConnection.getInstance(), lendingDbUrl,
-                dbProps.getProperty(environment + ".lending_database_username"),
-                dbProps.getProperty(environment + ".lending_database_password"));
-        String query = "select * from nach_document_queue where loan_application_no = ?";
         try (Connection conn = LendingDataBaseConnection.getInstance().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
+             PreparedStatement stmt = StatementCache.prepare(conn, Queries.NACH_DOC_QUEUE_QUERY)) {
             stmt.setString(1, loanAppNo);
             stmt.executeQuery();
         } catch (SQLException e) {
@@ -248,15 +283,8 @@ public class DatabaseConnection {
         }
     }
     public static void mannualNachQuery(String random_id,String loanAppNo) throws SQLException, ClassNotFoundException {
-        String environment = dbProps.getProperty("environment");
-        String lendingDbUrl = dbProps.getProperty(environment + ".lending");
-        connectToDatabase("Lending", LendingDataBaseConnection.getInstance(), lendingDbUrl,
-                dbProps.getProperty(environment + ".lending_database_username"),
-                dbProps.getProperty(environment + ".lending_database_password"));
-        String query = "INSERT INTO nach_document_queue VALUES (?, ?, 'Nach.pdf', " +
-                "'PROCESSED', 'API', 'mv.atlas', '2020-02-01 21:38:00', '2021-02-08 22:59:36', NULL, 'APPROVED', 0, '', '', 0, NULL)" ;
         try (Connection conn = LendingDataBaseConnection.getInstance().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
+             PreparedStatement stmt = StatementCache.prepare(conn, Queries.INSERT_MANUAL_NACH_QUERY)) {
             stmt.setString(1, random_id);
             stmt.setString(2,loanAppNo);
             stmt.executeUpdate();
@@ -264,20 +292,12 @@ public class DatabaseConnection {
             Logger.logError("Error executing" + e.getMessage());
         }
     }
-        public static Connection getConnection() {
-        return connection;
-    }
-
-    public static Connection getLendingDBConnection() {
+    public static Connection getLendingDBConnection() throws SQLException {
         return LendingDataBaseConnection.getInstance().getConnection();
 
     }
 
-    public static void setConnection(Connection connection) {
-        DatabaseConnection.connection = connection;
-    }
-
-    public static Connection getCallingDBConnection() {
+    public static Connection getCallingDBConnection() throws SQLException {
         return CallingInfraDataBaseConnection.getInstance().getConnection();
         //return CallingDataBaseConnection.getInstance().getConnection();
 
@@ -1,11 +1,15 @@
 package automator;
 
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetProvider;
 import java.sql.*;
 
 public class DatabaseConnectionManager {
+    private static final String POOL_NAME = "DatabaseConnectionManager";
     private static DatabaseConnectionManager instance = null;
-    private Connection connection;
-    private Statement statement;
+    private HikariDataSource dataSource;
 
     private DatabaseConnectionManager() {}
 
@@ -18,37 +22,35 @@ public class DatabaseConnectionManager {
 
     public void setConnection(String databaseUrl, String user, String password) throws SQLException {
         try {
-            // Load MySQL JDBC driver
-            Class.forName("com.mysql.cj.jdbc.Driver");
-
-            // Establish connection
-            connection = DriverManager.getConnection(databaseUrl, user, password);
-
-            // Create statement
-            statement = connection.createStatement();
-        } catch (SQLException | ClassNotFoundException e) {
+            // Start (or reuse) a pooled DataSource for this URL
+            dataSource = ConnectionPool.open(POOL_NAME, databaseUrl, user, password);
+        } catch (SQLException e) {
             throw new SQLException("Error while setting connection: " + e.getMessage(), e);
         }
     }
 
     public ResultSet getQueryResult(String query) throws SQLException {
-        return statement.executeQuery(query);
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(query)) {
+            CachedRowSet rows = RowSetProvider.newFactory().createCachedRowSet();
+            rows.populate(resultSet);
+            return rows;
+        }
     }
 
     public int updateQuery(String query) throws SQLException {
-        return statement.executeUpdate(query);
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            return statement.executeUpdate(query);
+        }
     }
 
     public void closeConnection() throws SQLException {
-        if (statement != null && !statement.isClosed()) {
-            statement.close();
-        }
-        if (connection != null && !connection.isClosed()) {
-            connection.close();
-        }
+        ConnectionPool.close(POOL_NAME);
     }
 
     public boolean isConnectionOpen() throws SQLException {
-        return connection != null && !connection.isClosed();
+        return dataSource != null && !dataSource.isClosed();
     }
 }
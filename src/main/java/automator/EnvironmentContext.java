@@ -0,0 +1,84 @@
+package automator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Everything a flow needs to run against one ops environment: its DB handles, base URL and a view
+ * of config.properties in which "&lt;environment&gt;.key" entries take precedence over global ones.
+ * <p>
+ * Contexts for different environments are independent, so the same test can run against ops-01 ... ops-05
+ * concurrently in one JVM (see fanout.environments). The configured {@code environment} keeps using the
+ * DBFactory singletons, and schemas that follow their own environment (CallingInfra) are shared.
+ */
+public final class EnvironmentContext {
+    private static final Map<String, EnvironmentContext> contexts = new ConcurrentHashMap<>();
+
+    private final String environment;
+    private final Map<DBFactory.CONNECTION_NAMES, DataBase> dataBases = new ConcurrentHashMap<>();
+
+    private EnvironmentContext(String environment) {
+        this.environment = environment;
+    }
+
+    public static EnvironmentContext of(String environment) {
+        return contexts.computeIfAbsent(environment, EnvironmentContext::new);
+    }
+
+    // Context for the environment set in config.properties
+    public static EnvironmentContext getDefault() {
+        return of(ConfigManager.getEnvironment());
+    }
+
+    public String getEnvironment() {
+        return environment;
+    }
+
+    // e.g. "https://ops-05.stg.whizdm.com", unless "<environment>.base_url" points elsewhere
+    public String getBaseUrl() {
+        String baseUrl = getProperty("base_url");
+        return baseUrl != null && !baseUrl.isEmpty() ? baseUrl : "https://" + environment + ".stg.whizdm.com";
+    }
+
+    // Environment hosting the calling infra for this one, e.g. ops-02 (or "<environment>.calling_environment")
+    public String getCallingEnvironment() {
+        return getProperty("calling_environment");
+    }
+
+    // "<environment>.key" when present, otherwise the global key
+    public String getProperty(String key) {
+        String scoped = ConfigManager.getProperty(environment + "." + key);
+        return scoped != null ? scoped : ConfigManager.getProperty(key);
+    }
+
+    // Lazy handle; nothing is connected until the first getConnection()
+    public DataBase getDataBase(DBFactory.CONNECTION_NAMES schema) {
+        if (!schema.isEnvironmentScoped() || environment.equals(ConfigManager.getEnvironment())) {
+            return DBFactory.getDataBase(schema);
+        }
+        return dataBases.computeIfAbsent(schema, key -> {
+            DataBase dataBase = new EnvironmentDataBase(key, environment);
+            ConnectionHealthChecker.register(dataBase);
+            return dataBase;
+        });
+    }
+
+    // Every environment with a lending database in config.properties, e.g. [ops-01, ..., ops-05]
+    public static List<String> getConfiguredEnvironments() {
+        List<String> environments = new ArrayList<>();
+        for (String key : ConfigManager.getPropertyNames()) {
+            if (key.endsWith(".lending")) {
+                environments.add(key.substring(0, key.length() - ".lending".length()));
+            }
+        }
+        environments.sort(null);
+        return environments;
+    }
+
+    @Override
+    public String toString() {
+        return "EnvironmentContext[" + environment + "]";
+    }
+}
@@ -0,0 +1,33 @@
+package automator;
+
+import java.sql.SQLException;
+
+// Handle for one schema of a specific ops environment, with its own pool (see EnvironmentContext)
+class EnvironmentDataBase extends DataBase {
+    private final String environment;
+
+    EnvironmentDataBase(DBFactory.CONNECTION_NAMES connectionName, String environment) {
+        super(connectionName);
+        this.environment = environment;
+    }
+
+    @Override
+    public String getEnvironment() {
+        return environment;
+    }
+
+    @Override
+    protected String getPoolName() {
+        return environment + "-" + getConnectionName().name();
+    }
+
+    @Override
+    public void setConnection(String databaseUrl, String user, String password) throws SQLException {
+        try {
+            openPool(databaseUrl, user, password);
+        } catch (SQLException e) {
+            throw new SQLException("Error while setting connection to " + getConnectionName().getDisplayName()
+                    + " database (" + environment + "): " + e.getMessage(), e);
+        }
+    }
+}
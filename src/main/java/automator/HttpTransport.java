@@ -0,0 +1,144 @@
+package automator;
+
+import okhttp3.*;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One shared OkHttpClient for every HTTP call the automation makes.
+ * <p>
+ * All clients handed out here share a single connection pool, dispatcher and TLS socket factory, so
+ * repeated calls to *.stg.whizdm.com reuse a kept-alive connection (negotiating HTTP/2 via ALPN where the
+ * host offers it) and resume the TLS session instead of paying a full handshake each time. The dispatcher
+ * caps concurrent calls per host at http.max_requests_per_host. Timeouts come from the http.* keys;
+ * {@link #withTimeout(Duration)} and {@link #withBasicAuth(String, String)} derive clients that still
+ * share the same pool.
+ */
+public class HttpTransport {
+    private static final LongAdder calls = new LongAdder();
+    private static final LongAdder connects = new LongAdder();
+    private static final LongAdder tlsHandshakes = new LongAdder();
+    private static final LongAdder throttled = new LongAdder();
+    private static final Map<String, OkHttpClient> authenticated = new ConcurrentHashMap<>();
+    private static final Semaphore inFlight = new Semaphore(ConfigManager.getHttpMaxRequests(), true);
+    private static final Map<String, Semaphore> inFlightPerHost = new ConcurrentHashMap<>();
+    private static final OkHttpClient client = createClient();
+
+    private HttpTransport() {}
+
+    private static OkHttpClient createClient() {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(ConfigManager.getHttpMaxRequests());
+        dispatcher.setMaxRequestsPerHost(ConfigManager.getHttpMaxRequestsPerHost());
+        return new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .addInterceptor(HttpTransport::throttle)
+                .connectionPool(new okhttp3.ConnectionPool(ConfigManager.getHttpMaxIdleConnections(),
+                        ConfigManager.getHttpKeepAliveMs(), TimeUnit.MILLISECONDS))
+                .protocols(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .connectTimeout(ConfigManager.getHttpConnectTimeoutMs(), TimeUnit.MILLISECONDS)
+                .readTimeout(ConfigManager.getHttpReadTimeoutMs(), TimeUnit.MILLISECONDS)
+                .writeTimeout(ConfigManager.getHttpReadTimeoutMs(), TimeUnit.MILLISECONDS)
+                .eventListenerFactory(call -> new EventListener() {
+                    @Override
+                    public void callStart(Call c) {
+                        calls.increment();
+                    }
+
+                    @Override
+                    public void connectStart(Call c, InetSocketAddress address, Proxy proxy) {
+                        connects.increment();
+                    }
+
+                    @Override
+                    public void secureConnectStart(Call c) {
+                        tlsHandshakes.increment();
+                    }
+                })
+                .build();
+    }
+
+    // Holds a global and a per-host permit until the response headers are in (or the call fails)
+    private static Response throttle(Interceptor.Chain chain) throws IOException {
+        Semaphore host = inFlightPerHost.computeIfAbsent(chain.request().url().host(),
+                key -> new Semaphore(ConfigManager.getHttpMaxRequestsPerHost(), true));
+        acquire(inFlight);
+        try {
+            acquire(host);
+            try {
+                return chain.proceed(chain.request());
+            } finally {
+                host.release();
+            }
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    private static void acquire(Semaphore permits) throws IOException {
+        if (permits.tryAcquire()) {
+            return;
+        }
+        throttled.increment();
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for an HTTP permit");
+        }
+    }
+
+    public static OkHttpClient client() {
+        return client;
+    }
+
+    // Same pool and dispatcher; connect, read and the call as a whole are each bounded by timeout
+    public static OkHttpClient withTimeout(Duration timeout) {
+        return client.newBuilder()
+                .connectTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .readTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .callTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    // Adds an Authorization: Basic header to every request; one client per credential pair, keyed by the
+    // encoded header value so no plaintext password is held as a map key
+    public static OkHttpClient withBasicAuth(String user, String password) {
+        String credentials = Credentials.basic(user, password);
+        return authenticated.computeIfAbsent(credentials, key -> client.newBuilder()
+                .addInterceptor(chain -> chain.proceed(chain.request().newBuilder()
+                        .header("Authorization", key).build()))
+                .build());
+    }
+
+    // GETs the URL and returns the status code; the body is discarded so the connection goes back to the pool
+    public static int getStatus(String url) throws IOException {
+        Request request = new Request.Builder().url(url).get().build();
+        try (Response response = client.newCall(request).execute()) {
+            return response.code();
+        }
+    }
+
+    // e.g. "HttpTransport[calls=12, throttled=0, newConnections=2, tlsHandshakes=2, pooled=2, idle=2]"
+    public static String describe() {
+        return "HttpTransport[calls=" + calls.sum() + ", throttled=" + throttled.sum()
+                + ", newConnections=" + connects.sum()
+                + ", tlsHandshakes=" + tlsHandshakes.sum()
+                + ", pooled=" + client.connectionPool().connectionCount()
+                + ", idle=" + client.connectionPool().idleConnectionCount() + "]";
+    }
+
+    public static void logStats() {
+        Logger.logInfo(describe());
+    }
+}
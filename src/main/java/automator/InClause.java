@@ -0,0 +1,61 @@
+package automator;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Helpers for bounded "column IN (?, ?, ...)" lists.
+ * Lists are padded up to a power of two (repeating the last value) so that only a handful of
+ * distinct statement shapes ever reach the prepared statement cache.
+ */
+public final class InClause {
+    public static final int MAX_SIZE = 512;
+
+    private InClause() {}
+
+    public static List<List<String>> partition(Collection<String> values, int maxSize) {
+        List<List<String>> chunks = new ArrayList<>();
+        List<String> current = new ArrayList<>(Math.min(values.size(), maxSize));
+        for (String value : values) {
+            current.add(value);
+            if (current.size() == maxSize) {
+                chunks.add(current);
+                current = new ArrayList<>(maxSize);
+            }
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current);
+        }
+        return chunks;
+    }
+
+    // Smallest power of two >= count, capped at maxSize
+    public static int bucketSize(int count, int maxSize) {
+        int size = Integer.highestOneBit(Math.max(1, count));
+        if (size < count) {
+            size <<= 1;
+        }
+        return Math.min(size, maxSize);
+    }
+
+    // "?, ?, ?" for the given number of parameters
+    public static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder(count * 3);
+        for (int i = 0; i < count; i++) {
+            sb.append(i == 0 ? "?" : ", ?");
+        }
+        return sb.toString();
+    }
+
+    // Binds values starting at parameterIndex, padding up to bucketSize; returns the next free index
+    public static int bind(PreparedStatement stmt, int parameterIndex, List<String> values, int bucketSize)
+            throws SQLException {
+        for (int i = 0; i < bucketSize; i++) {
+            stmt.setString(parameterIndex++, values.get(Math.min(i, values.size() - 1)));
+        }
+        return parameterIndex;
+    }
+}
@@ -0,0 +1,138 @@
+package automator;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Dynamic proxies around the pooled Connection / Statement / ResultSet handed out by {@link DataBase}.
+ * <p>
+ * Every execute* call is timed, and so is the time spent in ResultSet.next() until the result set is
+ * exhausted or closed; the figures go to {@link QueryMetrics}. All other calls, including unwrap and
+ * isWrapperFor, go straight to the wrapped object, so nothing else changes for callers.
+ */
+final class JdbcInstrumentation {
+
+    private JdbcInstrumentation() {}
+
+    static Connection wrap(Connection connection, String poolName) {
+        return proxy(Connection.class, new ConnectionHandler(connection, poolName));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(JdbcInstrumentation.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object call(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private record ConnectionHandler(Connection delegate, String poolName) implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = call(delegate, method, args);
+            if (result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                // prepareStatement / prepareCall carry their SQL up front, createStatement gets it per execute
+                String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                return proxy(method.getReturnType(), new StatementHandler(statement, poolName, sql));
+            }
+            return result;
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement delegate;
+        private final String poolName;
+        private final String preparedSql;
+        private String lastSql;
+        private long lastExecutionNanos;
+
+        private StatementHandler(Statement delegate, String poolName, String preparedSql) {
+            this.delegate = delegate;
+            this.poolName = poolName;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+                long start = System.nanoTime();
+                Object result = call(delegate, method, args);
+                long elapsed = System.nanoTime() - start;
+                QueryMetrics.recordExecution(sql, elapsed);
+                lastSql = sql;
+                lastExecutionNanos = elapsed;
+                if (result instanceof ResultSet resultSet) {
+                    return proxy(ResultSet.class, new ResultSetHandler(resultSet, poolName, sql, elapsed));
+                }
+                // execute() may still produce a result set, which is then timed through getResultSet()
+                if (!(name.equals("execute") && Boolean.TRUE.equals(result))) {
+                    QueryMetrics.checkSlow(poolName, sql, elapsed, 0, 0);
+                }
+                return result;
+            }
+            Object result = call(delegate, method, args);
+            if (name.equals("getResultSet") && result instanceof ResultSet resultSet) {
+                return proxy(ResultSet.class, new ResultSetHandler(resultSet, poolName, lastSql, lastExecutionNanos));
+            }
+            return result;
+        }
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet delegate;
+        private final String poolName;
+        private final String sql;
+        private final long executionNanos;
+        private long fetchNanos;
+        private long rows;
+        private boolean finished;
+
+        private ResultSetHandler(ResultSet delegate, String poolName, String sql, long executionNanos) {
+            this.delegate = delegate;
+            this.poolName = poolName;
+            this.sql = sql;
+            this.executionNanos = executionNanos;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("next")) {
+                long start = System.nanoTime();
+                Object result = call(delegate, method, args);
+                fetchNanos += System.nanoTime() - start;
+                if (Boolean.TRUE.equals(result)) {
+                    rows++;
+                } else {
+                    finish();
+                }
+                return result;
+            }
+            if (name.equals("close")) {
+                finish();
+            }
+            return call(delegate, method, args);
+        }
+
+        private void finish() {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            QueryMetrics.recordFetch(sql, fetchNanos, rows);
+            QueryMetrics.checkSlow(poolName, sql, executionNanos, fetchNanos, rows);
+        }
+    }
+}
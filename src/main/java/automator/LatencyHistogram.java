@@ -0,0 +1,70 @@
+package automator;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with power-of-two microsecond buckets.
+ * Recording is one array index and two LongAdder increments, so it is cheap enough to sit on every
+ * JDBC call; percentiles are reported as the upper bound of the bucket they fall in.
+ */
+public final class LatencyHistogram {
+    // Bucket i holds values in [2^(i-1), 2^i) microseconds; 40 buckets reach well past a day
+    private static final int BUCKETS = 40;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+    private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void recordNanos(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        buckets[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros))].increment();
+        count.increment();
+        totalMicros.add(micros);
+        maxMicros.accumulate(micros);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getMeanMillis() {
+        long samples = count.sum();
+        return samples == 0 ? 0.0 : totalMicros.sum() / 1000.0 / samples;
+    }
+
+    public double getMaxMillis() {
+        return maxMicros.get() / 1000.0;
+    }
+
+    // e.g. percentileMillis(0.95); 0 when nothing was recorded
+    public double percentileMillis(double quantile) {
+        long samples = count.sum();
+        if (samples == 0) {
+            return 0.0;
+        }
+        long rank = (long) Math.ceil(quantile * samples);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets[i].sum();
+            if (seen >= rank) {
+                return Math.min(i == 0 ? 0 : 1L << i, maxMicros.get()) / 1000.0;
+            }
+        }
+        return getMaxMillis();
+    }
+
+    // e.g. "n=42, mean=3.1 ms, p50=2.0 ms, p95=8.2 ms, p99=16.4 ms, max=17.9 ms"
+    public String describe() {
+        return String.format("n=%d, mean=%.1f ms, p50=%.1f ms, p95=%.1f ms, p99=%.1f ms, max=%.1f ms",
+                getCount(), getMeanMillis(), percentileMillis(0.50), percentileMillis(0.95),
+                percentileMillis(0.99), getMaxMillis());
+    }
+}
@@ -0,0 +1,70 @@
+package automator;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Bulk lookup of loan_application rows by id.
+ * Ids are split into bounded IN-lists (lookup.batch_size) and rows are streamed with a server-side
+ * cursor (lookup.fetch_size), so hundreds of ids cost a handful of round-trips instead of one each.
+ * The overloads without an environment read the configured one; the others go through {@link EnvironmentContext}.
+ */
+public class LoanApplicationLookup {
+
+    // The two columns callers actually need from loan_application
+    public record LoanApplication(String reviewStatus, String loanApplicationNo) {}
+
+    private LoanApplicationLookup() {}
+
+    public static LoanApplication fetch(String loanAppID) throws SQLException {
+        return fetch(ConfigManager.getEnvironment(), List.of(loanAppID)).get(loanAppID);
+    }
+
+    public static Map<String, LoanApplication> fetch(Collection<String> loanAppIDs) throws SQLException {
+        return fetch(ConfigManager.getEnvironment(), loanAppIDs);
+    }
+
+    // Ids that don't exist are simply absent from the returned map
+    public static Map<String, LoanApplication> fetch(String environment, Collection<String> loanAppIDs) throws SQLException {
+        Map<String, LoanApplication> result = new HashMap<>((int) (loanAppIDs.size() / 0.75f) + 1);
+        forEach(environment, loanAppIDs, result::put);
+        return result;
+    }
+
+    // Streams every matching row to the consumer without materialising the whole result
+    public static void forEach(String environment, Collection<String> loanAppIDs,
+                               BiConsumer<String, LoanApplication> consumer) throws SQLException {
+        if (loanAppIDs.isEmpty()) {
+            return;
+        }
+        int batchSize = Math.min(ConfigManager.getLookupBatchSize(), InClause.MAX_SIZE);
+        DataBase lending = EnvironmentContext.of(environment).getDataBase(DBFactory.CONNECTION_NAMES.LENDING);
+        try (Connection conn = lending.getConnection()) {
+            for (List<String> ids : InClause.partition(new LinkedHashSet<>(loanAppIDs), batchSize)) {
+                int bucket = InClause.bucketSize(ids.size(), batchSize);
+                String sql = Queries.BULK_LOAN_APPLICATION_QUERY_PREFIX + InClause.placeholders(bucket) + ")";
+                try (PreparedStatement stmt = StatementCache.prepare(conn, sql)) {
+                    stmt.setFetchSize(ConfigManager.getLookupFetchSize());
+                    InClause.bind(stmt, 1, ids, bucket);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            String id = rs.getString("id");
+                            String loanApplicationNo = rs.getString("loan_application_no");
+                            // loan_application_no is immutable, so every read doubles as a cache fill
+                            LoanIdentifierCache.put(environment, id, loanApplicationNo);
+                            consumer.accept(id, new LoanApplication(rs.getString("user_data_review_status"), loanApplicationNo));
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package automator;
+
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Read-through cache for loan_application.id -> loan_application_no.
+ * The mapping never changes once an application exists, so entries never expire; the cache is only
+ * bounded by size (loan_id_cache.max_size) and evicts the least recently used id.
+ * Misses fall back to {@link MetadataStore} before the database, so ids reused across runs skip the query.
+ * Entries are keyed by environment as well as id: the same id means a different application on ops-01 and ops-03.
+ */
+public class LoanIdentifierCache {
+    private static final String NAMESPACE = "loan_application_no";
+    private static final int maxSize = ConfigManager.getLoanIdCacheMaxSize();
+    private static final LinkedHashMap<String, String> loanAppNos = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            if (size() > maxSize) {
+                evictions++;
+                return true;
+            }
+            return false;
+        }
+    };
+    private static long hits;
+    private static long misses;
+    private static long diskHits;
+    private static long evictions;
+
+    private LoanIdentifierCache() {}
+
+    // Returns null when the application does not exist
+    public static String getLoanAppNo(String loanAppID) throws SQLException {
+        return getLoanAppNo(ConfigManager.getEnvironment(), loanAppID);
+    }
+
+    public static String getLoanAppNo(String environment, String loanAppID) throws SQLException {
+        return getLoanAppNos(environment, List.of(loanAppID)).get(loanAppID);
+    }
+
+    public static Map<String, String> getLoanAppNos(Collection<String> loanAppIDs) throws SQLException {
+        return getLoanAppNos(ConfigManager.getEnvironment(), loanAppIDs);
+    }
+
+    public static Map<String, String> getLoanAppNos(String environment, Collection<String> loanAppIDs) throws SQLException {
+        Map<String, String> result = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        synchronized (loanAppNos) {
+            for (String loanAppID : loanAppIDs) {
+                String loanAppNo = loanAppNos.get(cacheKey(environment, loanAppID));
+                if (loanAppNo != null) {
+                    hits++;
+                    result.put(loanAppID, loanAppNo);
+                } else {
+                    misses++;
+                    missing.add(loanAppID);
+                }
+            }
+        }
+        for (Iterator<String> it = missing.iterator(); it.hasNext(); ) {
+            String loanAppID = it.next();
+            String loanAppNo = MetadataStore.get(environment, NAMESPACE, loanAppID);
+            if (loanAppNo != null) {
+                put(environment, loanAppID, loanAppNo);
+                synchronized (loanAppNos) {
+                    diskHits++;
+                }
+                result.put(loanAppID, loanAppNo);
+                it.remove();
+            }
+        }
+        if (!missing.isEmpty()) {
+            // LoanApplicationLookup records every loan_application_no it reads back into this cache
+            for (Map.Entry<String, LoanApplicationLookup.LoanApplication> entry : LoanApplicationLookup.fetch(environment, missing).entrySet()) {
+                String loanAppNo = entry.getValue().loanApplicationNo();
+                MetadataStore.put(environment, NAMESPACE, entry.getKey(), loanAppNo);
+                result.put(entry.getKey(), loanAppNo);
+            }
+        }
+        return result;
+    }
+
+    public static void put(String environment, String loanAppID, String loanAppNo) {
+        if (loanAppID == null || loanAppNo == null) {
+            return;
+        }
+        synchronized (loanAppNos) {
+            loanAppNos.put(cacheKey(environment, loanAppID), loanAppNo);
+        }
+    }
+
+    private static String cacheKey(String environment, String loanAppID) {
+        return environment + "/" + loanAppID;
+    }
+
+    public static double getHitRate() {
+        synchronized (loanAppNos) {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0.0 : (double) hits / lookups;
+        }
+    }
+
+    // e.g. "LoanIdentifierCache[size=12/10000, hits=30, misses=12, diskHits=9, evictions=0, hitRate=71.4%]"
+    public static String describe() {
+        synchronized (loanAppNos) {
+            return String.format("LoanIdentifierCache[size=%d/%d, hits=%d, misses=%d, diskHits=%d, evictions=%d, hitRate=%.1f%%]",
+                    loanAppNos.size(), maxSize, hits, misses, diskHits, evictions, getHitRate() * 100);
+        }
+    }
+
+    public static void logStats() {
+        Logger.logInfo(describe());
+    }
+}
@@ -0,0 +1,210 @@
+package automator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Small persistent key/value store for lookups that stay stable across JVM runs
+ * (e.g. loan_application.id -> loan_application_no for the loan_app_IDs reused from config.properties).
+ * <p>
+ * Entries are keyed by environment and namespace and appended to a tab separated log
+ * (metadata_store.path). The last write for a key wins, entries older than metadata_store.ttl_hours are
+ * ignored, and {@link #purge()} / {@link #purge(String)} (or running this class) clear it manually.
+ * Overwritten and expired lines stay in the log until there are more than metadata_store.compact_threshold
+ * of them (counted on load and on every overwrite); the log is then rewritten with only the live entries.
+ */
+public class MetadataStore {
+    private static Path path = Paths.get(ConfigManager.getMetadataStorePath());
+    private static long ttlMs = ConfigManager.getMetadataStoreTtlHours() * 60 * 60 * 1000;
+    private static Map<String, Entry> entries;
+    // Lines in the log that no longer hold a live entry, as counted by the last load
+    private static int deadLines;
+
+    private record Entry(String environment, String namespace, String key, String value, long writtenAt) {
+        String toLine() {
+            return writtenAt + "\t" + environment + "\t" + namespace + "\t" + key + "\t" + value + System.lineSeparator();
+        }
+    }
+
+    private MetadataStore() {}
+
+    // Manual purge: no argument clears every environment, otherwise only the given one (e.g. ops-05)
+    public static void main(String[] args) {
+        if (args != null && args.length > 0) {
+            purge(args[0]);
+        } else {
+            purge();
+        }
+    }
+
+    // Returns null when the key is unknown in that environment or its entry has outlived the TTL
+    public static synchronized String get(String environment, String namespace, String key) {
+        if (!ConfigManager.isMetadataStoreEnabled()) {
+            return null;
+        }
+        Entry entry = load().get(compositeKey(environment, namespace, key));
+        if (entry == null || isExpired(entry)) {
+            return null;
+        }
+        return entry.value();
+    }
+
+    public static synchronized void put(String environment, String namespace, String key, String value) {
+        if (!ConfigManager.isMetadataStoreEnabled() || value == null) {
+            return;
+        }
+        Entry entry = new Entry(environment, namespace, key, value, System.currentTimeMillis());
+        if (!isStorable(entry)) {
+            return;
+        }
+        if (load().put(compositeKey(entry.environment(), namespace, key), entry) != null) {
+            deadLines++;
+        }
+        // A long run that keeps overwriting keys compacts as it goes, the new entry included
+        if (deadLines > ConfigManager.getMetadataStoreCompactThreshold()) {
+            rewrite();
+            return;
+        }
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            Files.writeString(path, entry.toLine(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            Logger.logError("Unable to write metadata store " + path + ": " + e.getMessage());
+        }
+    }
+
+    public static synchronized void purge() {
+        entries = new HashMap<>();
+        try {
+            Files.deleteIfExists(path);
+            Logger.logInfo("Metadata store purged: " + path);
+        } catch (IOException e) {
+            Logger.logError("Unable to purge metadata store " + path + ": " + e.getMessage());
+        }
+    }
+
+    // Drops one environment and compacts the log down to the live entries of the others
+    public static synchronized void purge(String environment) {
+        load().values().removeIf(entry -> entry.environment().equals(environment) || isExpired(entry));
+        if (rewrite()) {
+            Logger.logInfo("Metadata store purged for environment " + environment + ": " + path);
+        }
+    }
+
+    // Points the store at another log and TTL, dropping what was loaded (used by the unit tests)
+    static synchronized void use(Path storePath, long storeTtlMs) {
+        path = storePath;
+        ttlMs = storeTtlMs;
+        entries = null;
+        deadLines = 0;
+    }
+
+    static synchronized int getDeadLineCount() {
+        load();
+        return deadLines;
+    }
+
+    // Replaces the log with the live entries only. The entries go to a temp file next to the log that is then
+    // moved over it, so a crash mid-rewrite leaves either the old log or the new one, never a truncated file.
+    private static boolean rewrite() {
+        List<String> lines = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            lines.add(entry.toLine().stripTrailing());
+        }
+        Path tmp = null;
+        try {
+            Path dir = path.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            tmp = Files.createTempFile(dir, path.getFileName().toString(), ".tmp");
+            Files.write(tmp, lines, StandardCharsets.UTF_8);
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            deadLines = 0;
+            return true;
+        } catch (IOException e) {
+            Logger.logError("Unable to rewrite metadata store " + path + ": " + e.getMessage());
+            deleteQuietly(tmp);
+            return false;
+        }
+    }
+
+    private static void deleteQuietly(Path tmp) {
+        if (tmp == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(tmp);
+        } catch (IOException e) {
+            Logger.logError("Unable to delete " + tmp + ": " + e.getMessage());
+        }
+    }
+
+    private static Map<String, Entry> load() {
+        if (entries != null) {
+            return entries;
+        }
+        entries = new HashMap<>();
+        deadLines = 0;
+        if (!Files.exists(path)) {
+            return entries;
+        }
+        int lineCount = 0;
+        try {
+            for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                lineCount++;
+                Entry entry = parse(line);
+                // A malformed line (e.g. half written by a crashed append) is dead, the rest of the log still loads
+                if (entry != null && !isExpired(entry)) {
+                    entries.put(compositeKey(entry.environment(), entry.namespace(), entry.key()), entry);
+                }
+            }
+        } catch (IOException e) {
+            Logger.logError("Ignoring unreadable metadata store " + path + ": " + e.getMessage());
+            return entries;
+        }
+        deadLines = lineCount - entries.size();
+        if (deadLines > ConfigManager.getMetadataStoreCompactThreshold() && rewrite()) {
+            Logger.logInfo("Metadata store compacted to " + entries.size() + " entries: " + path);
+        }
+        return entries;
+    }
+
+    private static Entry parse(String line) {
+        String[] fields = line.split("\t", 5);
+        if (fields.length != 5) {
+            return null;
+        }
+        try {
+            return new Entry(fields[1], fields[2], fields[3], fields[4], Long.parseLong(fields[0]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean isExpired(Entry entry) {
+        return System.currentTimeMillis() - entry.writtenAt() > ttlMs;
+    }
+
+    // Tabs and line breaks would corrupt the log format
+    private static boolean isStorable(Entry entry) {
+        for (String field : new String[]{entry.environment(), entry.namespace(), entry.key(), entry.value()}) {
+            if (field == null || field.contains("\t") || field.contains("\n") || field.contains("\r")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String compositeKey(String environment, String namespace, String key) {
+        return environment + "\t" + namespace + "\t" + key;
+    }
+}
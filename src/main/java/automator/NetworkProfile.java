@@ -0,0 +1,183 @@
+package automator;
+
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.Request;
+import com.microsoft.playwright.Response;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request routing profile for ops console contexts: drops what the automation never looks at
+ * (images, fonts, analytics, ...) so every page load and reload fetches less.
+ * <p>
+ * In blocklist mode a request is aborted when its resource type is in network_profile.resource_types or
+ * its URL contains one of network_profile.url_patterns; in allowlist mode only those requests (and the
+ * document itself) get through. Each context's blocked requests are counted, and the bytes they would
+ * have cost are estimated from the Content-Length of the same URL seen on an unfiltered page (the login
+ * page, see {@link #learnSizes(Page)}), remembered across runs in the MetadataStore.
+ */
+public final class NetworkProfile {
+
+    public enum Mode { OFF, BLOCKLIST, ALLOWLIST }
+
+    private static final String SIZE_NAMESPACE = "resource_bytes";
+    private static final Map<String, Long> knownSizes = new ConcurrentHashMap<>();
+    private static final LongAdder totalBlocked = new LongAdder();
+    private static final LongAdder totalBytesSaved = new LongAdder();
+
+    private final Mode mode;
+    private final Set<String> resourceTypes;
+    private final List<String> urlPatterns;
+
+    public NetworkProfile(Mode mode, Set<String> resourceTypes, List<String> urlPatterns) {
+        this.mode = mode;
+        this.resourceTypes = Set.copyOf(resourceTypes);
+        this.urlPatterns = List.copyOf(urlPatterns);
+    }
+
+    public static NetworkProfile fromConfig() {
+        return new NetworkProfile(Mode.valueOf(ConfigManager.getNetworkProfileMode().trim().toUpperCase()),
+                new HashSet<>(ConfigManager.getNetworkProfileResourceTypes()), ConfigManager.getNetworkProfileUrlPatterns());
+    }
+
+    public boolean allows(String resourceType, String url) {
+        boolean listed = resourceTypes.contains(resourceType) || matchesPattern(url);
+        return switch (mode) {
+            case OFF -> true;
+            case BLOCKLIST -> !listed;
+            case ALLOWLIST -> listed || "document".equals(resourceType);
+        };
+    }
+
+    /**
+     * Routes every request of the context through this profile. The returned stats fill in as pages of
+     * the context load; with Mode.OFF nothing is routed and the stats stay empty.
+     */
+    public Stats apply(BrowserContext context) {
+        Stats stats = new Stats();
+        if (mode == Mode.OFF) {
+            return stats;
+        }
+        context.route("**/*", route -> {
+            Request request = route.request();
+            if (allows(request.resourceType(), request.url())) {
+                stats.allowed.increment();
+                route.resume();
+            } else {
+                long size = sizeOf(request.url());
+                stats.blocked.increment();
+                stats.bytesSaved.add(size);
+                stats.blockedByType.computeIfAbsent(request.resourceType(), key -> new LongAdder()).increment();
+                totalBlocked.increment();
+                totalBytesSaved.add(size);
+                route.abort();
+            }
+        });
+        return stats;
+    }
+
+    // Remembers the Content-Length of everything an unfiltered page loads, to estimate what blocking saves
+    public static void learnSizes(Page page) {
+        page.onResponse(response -> {
+            Long size = contentLength(response);
+            String url = withoutQuery(response.url());
+            if (size != null && knownSizes.putIfAbsent(url, size) == null) {
+                MetadataStore.put(ConfigManager.getEnvironment(), SIZE_NAMESPACE, url, String.valueOf(size));
+            }
+        });
+    }
+
+    // e.g. "NetworkProfile[mode=BLOCKLIST, blocked=240, ~bytesSaved=3.1 MB]"
+    public String describe() {
+        return "NetworkProfile[mode=" + mode + ", blocked=" + totalBlocked.sum() + ", ~bytesSaved="
+                + formatBytes(totalBytesSaved.sum()) + "]";
+    }
+
+    public void logStats() {
+        if (mode != Mode.OFF) {
+            Logger.logInfo(describe());
+        }
+    }
+
+    // Requests of one context (Opsflow uses one page per context)
+    public static final class Stats {
+        private final LongAdder allowed = new LongAdder();
+        private final LongAdder blocked = new LongAdder();
+        private final LongAdder bytesSaved = new LongAdder();
+        private final Map<String, LongAdder> blockedByType = new ConcurrentSkipListMap<>();
+
+        public long getAllowed() {
+            return allowed.sum();
+        }
+
+        public long getBlocked() {
+            return blocked.sum();
+        }
+
+        public long getBytesSaved() {
+            return bytesSaved.sum();
+        }
+
+        // e.g. "allowed=41, blocked=58 {font=6, image=49, script=3}, ~saved=1.2 MB"
+        public String describe() {
+            Map<String, Long> byType = new LinkedHashMap<>();
+            for (Map.Entry<String, LongAdder> entry : blockedByType.entrySet()) {
+                byType.put(entry.getKey(), entry.getValue().sum());
+            }
+            return "allowed=" + getAllowed() + ", blocked=" + getBlocked() + " " + byType + ", ~saved="
+                    + formatBytes(getBytesSaved());
+        }
+    }
+
+    private boolean matchesPattern(String url) {
+        for (String pattern : urlPatterns) {
+            if (url.contains(pattern)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 0 when the URL has never been seen unfiltered
+    private static long sizeOf(String url) {
+        String key = withoutQuery(url);
+        Long size = knownSizes.get(key);
+        if (size != null) {
+            return size;
+        }
+        String stored = MetadataStore.get(ConfigManager.getEnvironment(), SIZE_NAMESPACE, key);
+        if (stored == null) {
+            return 0;
+        }
+        knownSizes.putIfAbsent(key, Long.parseLong(stored));
+        return Long.parseLong(stored);
+    }
+
+    private static Long contentLength(Response response) {
+        String header = response.headerValue("content-length");
+        try {
+            return header != null ? Long.parseLong(header.trim()) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String withoutQuery(String url) {
+        int query = url.indexOf('?');
+        return query < 0 ? url : url.substring(0, query);
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format("%.1f KB", bytes / 1024.0);
+        }
+        return String.format("%.1f MB", bytes / (1024.0 * 1024));
+    }
+}
@@ -0,0 +1,168 @@
+package automator;
+
+import okhttp3.*;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Logged-in HTTP session on the loans console of one environment, for driving review-status moves
+ * without a browser (opsflow.transition_mode=api).
+ * <p>
+ * The session logs in once with the configured username/password and keeps its JSESSIONID in a cookie
+ * jar; requests go through HttpTransport's shared connection pool. Sessions are cached per environment
+ * and user, and a call that bounces to the login page (session expired) logs in again and is retried
+ * once. Endpoint paths come from the opsflow.api.* keys.
+ * <p>
+ * The endpoints and form fields mirror what the console's pages appear to send and have not been confirmed
+ * against its controllers, which is why API mode is off by default. A contract mismatch fails fast instead of
+ * waiting out the transition timeout: a 2xx that serves the login form counts as a rejected session, and after
+ * a 2xx status change one Lending DB read checks that the application left its previous status.
+ */
+public class OpsConsoleClient {
+    private static final Map<String, OpsConsoleClient> sessions = new ConcurrentHashMap<>();
+    // Enough of a response body to recognise the login form and quote it in errors
+    private static final long PEEK_BYTES = 4096;
+
+    private final String environment;
+    private final String baseUrl;
+    private final String username;
+    private final String password;
+    private final Map<String, Cookie> cookies = new ConcurrentHashMap<>();
+    private final OkHttpClient client;
+    private volatile boolean loggedIn;
+
+    private OpsConsoleClient(String environment, String username, String password) {
+        this.environment = environment;
+        this.baseUrl = EnvironmentContext.of(environment).getBaseUrl();
+        this.username = username;
+        this.password = password;
+        this.client = HttpTransport.client().newBuilder()
+                .cookieJar(new CookieJar() {
+                    @Override
+                    public void saveFromResponse(HttpUrl url, List<Cookie> received) {
+                        for (Cookie cookie : received) {
+                            cookies.put(cookie.name(), cookie);
+                        }
+                    }
+
+                    @Override
+                    public List<Cookie> loadForRequest(HttpUrl url) {
+                        List<Cookie> matching = new ArrayList<>();
+                        for (Cookie cookie : cookies.values()) {
+                            if (cookie.matches(url)) {
+                                matching.add(cookie);
+                            }
+                        }
+                        return matching;
+                    }
+                })
+                // A redirect to the login page is how the console reports a missing session
+                .followRedirects(false)
+                .build();
+    }
+
+    public static OpsConsoleClient forEnvironment(String environment) {
+        return forEnvironment(environment, ConfigManager.getUsername(), ConfigManager.getPassword());
+    }
+
+    public static OpsConsoleClient forEnvironment(String environment, String username, String password) {
+        return sessions.computeIfAbsent(environment + "|" + username,
+                key -> new OpsConsoleClient(environment, username, password));
+    }
+
+    public synchronized void login() throws IOException {
+        cookies.clear();
+        RequestBody form = new FormBody.Builder()
+                .add("j_username", username)
+                .add("j_password", password)
+                .build();
+        Request request = new Request.Builder().url(baseUrl + ConfigManager.getOpsflowApiLoginPath()).post(form).build();
+        try (Response response = client.newCall(request).execute()) {
+            String location = response.header("Location");
+            if (response.code() >= 400 || isLoginPage(location) || isLoginForm(response.peekBody(PEEK_BYTES).string())) {
+                throw new IOException("Login as " + username + " failed: HTTP " + response.code()
+                        + (location != null ? " -> " + location : ""));
+            }
+        }
+        loggedIn = true;
+        Logger.logInfo("Logged in to " + baseUrl + " as " + username);
+    }
+
+    private synchronized void ensureLoggedIn() throws IOException {
+        if (!loggedIn) {
+            login();
+        }
+    }
+
+    // Takes the review lock on the application, as the Lock button does
+    public int lock(String loanAppID) throws IOException {
+        return post(ConfigManager.getOpsflowApiLockPath(), loanAppID, new FormBody.Builder().build()).code();
+    }
+
+    // Moves the application from one review status to the next with a remark, as Save does; returns the HTTP status
+    public int changeStatus(String loanAppID, String fromStatus, String toStatus, String remark) throws IOException {
+        RequestBody form = new FormBody.Builder()
+                .add("currentStatus", fromStatus)
+                .add("newStatus", toStatus)
+                .add("remark", remark)
+                .build();
+        Reply reply = post(ConfigManager.getOpsflowApiStatusPath(), loanAppID, form);
+        if (reply.code() / 100 == 2 && fromStatus.equals(readStatus(loanAppID))) {
+            throw new IOException(ConfigManager.getOpsflowApiStatusPath() + " answered HTTP " + reply.code() + " but "
+                    + loanAppID + " is still " + fromStatus + "; the endpoint or its currentStatus/newStatus/remark"
+                    + " fields may not match the console: "
+                    + reply.body().substring(0, Math.min(reply.body().length(), 200)));
+        }
+        return reply.code();
+    }
+
+    private record Reply(int code, String body) {}
+
+    // null when the read fails, so only a status the DB actually shows can fail the call
+    private String readStatus(String loanAppID) {
+        try {
+            LoanApplicationLookup.LoanApplication loanApplication =
+                    LoanApplicationLookup.fetch(environment, List.of(loanAppID)).get(loanAppID);
+            return loanApplication == null ? null : loanApplication.reviewStatus();
+        } catch (SQLException e) {
+            Logger.logError("Unable to read back the review status of " + loanAppID + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private Reply post(String path, String loanAppID, RequestBody body) throws IOException {
+        ensureLoggedIn();
+        HttpUrl url = HttpUrl.parse(baseUrl + path).newBuilder().addQueryParameter("loanApplicationId", loanAppID).build();
+        Request request = new Request.Builder().url(url).post(body).build();
+        for (int attempt = 0; ; attempt++) {
+            try (Response response = client.newCall(request).execute()) {
+                String peeked = response.peekBody(PEEK_BYTES).string();
+                boolean sessionExpired = response.code() == 401
+                        || response.code() / 100 == 3 && isLoginPage(response.header("Location"))
+                        || response.code() / 100 == 2 && isLoginForm(peeked);
+                if (!sessionExpired) {
+                    return new Reply(response.code(), peeked.strip());
+                }
+                if (attempt > 0) {
+                    throw new IOException("Session for " + username + " rejected after logging in again: " + url);
+                }
+            }
+            Logger.logInfo("Loans console session expired, logging in again");
+            login();
+        }
+    }
+
+    private static boolean isLoginPage(String location) {
+        return location != null && location.contains("invLogin");
+    }
+
+    // The console renders its login form instead of redirecting for some unauthenticated requests
+    private static boolean isLoginForm(String body) {
+        return body.contains("j_password");
+    }
+}
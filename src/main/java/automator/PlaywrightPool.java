@@ -0,0 +1,144 @@
+package automator;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.BrowserType;
+import com.microsoft.playwright.Playwright;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Suite-wide pool of Playwright drivers (each one a Node process, ~1 s to start) and their Chromium.
+ * <p>
+ * Playwright objects must only be used by one thread at a time, so a driver is lent out as a
+ * {@link Lease} to the calling thread and returned to the pool when the lease is closed; at most
+ * playwright.pool.max_drivers drivers exist and further callers wait for one to come back. Leasing
+ * again on a thread that already holds a lease hands back the same driver. Contexts created through
+ * a lease are closed with it (API calls go through HttpTransport, not Playwright). {@link #shutdown()} closes every
+ * driver at suite end (PlaywrightPoolListener, with a JVM shutdown hook as backstop).
+ */
+public class PlaywrightPool {
+    private static final Semaphore permits = new Semaphore(ConfigManager.getPlaywrightPoolMaxDrivers(), true);
+    private static final BlockingDeque<Driver> idle = new LinkedBlockingDeque<>();
+    private static final List<Driver> drivers = new CopyOnWriteArrayList<>();
+    private static final ThreadLocal<Lease> current = new ThreadLocal<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(PlaywrightPool::shutdown, "playwright-pool-shutdown"));
+    }
+
+    private static final class Driver {
+        private final Playwright playwright = Playwright.create();
+        private Browser browser;
+        private int leases;
+    }
+
+    private PlaywrightPool() {}
+
+    // Blocks while every driver is lent out to other threads
+    public static Lease acquire() throws InterruptedException {
+        Lease lease = current.get();
+        if (lease != null) {
+            lease.depth++;
+            return lease;
+        }
+        permits.acquire();
+        try {
+            Driver driver = idle.pollFirst();
+            if (driver == null) {
+                long start = System.nanoTime();
+                driver = new Driver();
+                drivers.add(driver);
+                Logger.logInfo("Playwright driver started in " + (System.nanoTime() - start) / 1_000_000
+                        + " ms (" + drivers.size() + " in pool)");
+            }
+            driver.leases++;
+            lease = new Lease(driver);
+            current.set(lease);
+            return lease;
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public static synchronized void shutdown() {
+        for (Driver driver : drivers) {
+            try {
+                driver.playwright.close();
+            } catch (RuntimeException e) {
+                Logger.logError("Error closing Playwright driver: " + e.getMessage());
+            }
+        }
+        if (!drivers.isEmpty()) {
+            Logger.logInfo("Playwright pool shut down: " + describe());
+        }
+        drivers.clear();
+        idle.clear();
+    }
+
+    // e.g. "PlaywrightPool[drivers=2, idle=2, leases=14]"
+    public static String describe() {
+        int leases = 0;
+        for (Driver driver : drivers) {
+            leases += driver.leases;
+        }
+        return "PlaywrightPool[drivers=" + drivers.size() + ", idle=" + idle.size() + ", leases=" + leases + "]";
+    }
+
+    public static final class Lease implements AutoCloseable {
+        private final Driver driver;
+        private final List<AutoCloseable> owned = new ArrayList<>();
+        private int depth = 1;
+
+        private Lease(Driver driver) {
+            this.driver = driver;
+        }
+
+        public Playwright playwright() {
+            return driver.playwright;
+        }
+
+        // Launched on first use and relaunched if the previous one crashed
+        public Browser browser() {
+            if (driver.browser == null || !driver.browser.isConnected()) {
+                driver.browser = driver.playwright.chromium().launch(new BrowserType.LaunchOptions()
+                        .setHeadless(ConfigManager.isHeadless())
+                        .setArgs(List.of("--start-maximized")));
+            }
+            return driver.browser;
+        }
+
+        public BrowserContext newContext(Browser.NewContextOptions options) {
+            BrowserContext context = browser().newContext(options);
+            owned.add(context);
+            return context;
+        }
+
+        // Closes what was created through this lease and hands the driver back to the pool
+        @Override
+        public void close() {
+            if (--depth > 0) {
+                return;
+            }
+            for (AutoCloseable resource : owned) {
+                try {
+                    resource.close();
+                } catch (Exception e) {
+                    Logger.logError("Error closing Playwright resource: " + e.getMessage());
+                }
+            }
+            owned.clear();
+            current.remove();
+            if (drivers.contains(driver)) {
+                idle.offerFirst(driver);
+            }
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package automator;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Polls a probe until it returns a result, with an overall deadline.
+ * <p>
+ * The first check is immediate. After that the wait starts at the initial interval and grows by the
+ * multiplier on every empty poll up to the maximum interval, with +/- jitter so concurrent pollers
+ * hitting the same table or endpoint spread out. A wait never runs past the deadline, so a timeout is
+ * reported on time. Something that shows up after 2 s is noticed within a second or two instead of at
+ * the next fixed 15 s tick, and a slow one still costs only a handful of polls.
+ * <p>
+ * {@link #start} returns a future; cancelling it stops polling. Probes are usually blocking JDBC or HTTP
+ * calls, so each one runs on its own virtual thread; the shared daemon scheduler only times the waits
+ * between them, and a slow probe never holds up another poller's next check. {@link #await} blocks the caller, and interrupting the caller cancels the polling.
+ * Every poll is recorded per poller name (probe latency, attempts, outcome), see {@link #logStats()}.
+ * Intervals default to poller.initial_interval_ms / max_interval_ms / multiplier / jitter.
+ */
+public final class Poller {
+    // Only hands due polls over to a virtual thread, so one thread is enough
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "poller");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final ThreadFactory probeThreads = Thread.ofVirtual().name("poller-probe-", 0).factory();
+    private static final Map<String, Metrics> metrics = new ConcurrentSkipListMap<>();
+
+    @FunctionalInterface
+    public interface Probe<T> {
+        // The result once the condition holds, null to poll again
+        T poll() throws Exception;
+    }
+
+    private final String name;
+    private final Duration timeout;
+    private final long initialIntervalMs;
+    private final long maxIntervalMs;
+    private final double multiplier;
+    private final double jitter;
+
+    private Poller(Builder builder) {
+        this.name = builder.name;
+        this.timeout = builder.timeout;
+        this.initialIntervalMs = builder.initialIntervalMs;
+        this.maxIntervalMs = Math.max(builder.initialIntervalMs, builder.maxIntervalMs);
+        this.multiplier = Math.max(1.0, builder.multiplier);
+        this.jitter = Math.min(1.0, Math.max(0.0, builder.jitter));
+    }
+
+    // name labels the metrics, e.g. "vendor_lead_details.ADDED"
+    public static Builder builder(String name, Duration timeout) {
+        return new Builder(name, timeout);
+    }
+
+    public static final class Builder {
+        private final String name;
+        private final Duration timeout;
+        private long initialIntervalMs = ConfigManager.getPollerInitialIntervalMs();
+        private long maxIntervalMs = ConfigManager.getPollerMaxIntervalMs();
+        private double multiplier = ConfigManager.getPollerMultiplier();
+        private double jitter = ConfigManager.getPollerJitter();
+
+        private Builder(String name, Duration timeout) {
+            this.name = name;
+            this.timeout = timeout;
+        }
+
+        public Builder initialInterval(Duration interval) {
+            this.initialIntervalMs = interval.toMillis();
+            return this;
+        }
+
+        public Builder maxInterval(Duration interval) {
+            this.maxIntervalMs = interval.toMillis();
+            return this;
+        }
+
+        public Builder multiplier(double multiplier) {
+            this.multiplier = multiplier;
+            return this;
+        }
+
+        // Fraction of each interval added or removed at random, 0 for none
+        public Builder jitter(double jitter) {
+            this.jitter = jitter;
+            return this;
+        }
+
+        public Poller build() {
+            return new Poller(this);
+        }
+    }
+
+    /**
+     * Starts polling in the background. The future completes with the probe's first non-null result,
+     * or exceptionally with a {@link PollTimeoutException} once the deadline passes. A probe that throws
+     * counts as an empty poll (its last error is reported on timeout).
+     */
+    public <T> CompletableFuture<T> start(Probe<T> probe) {
+        Attempt<T> attempt = new Attempt<>(probe, System.nanoTime() + timeout.toNanos());
+        attempt.future.whenComplete((result, error) -> attempt.stop());
+        attempt.schedule(0);
+        return attempt.future;
+    }
+
+    // Blocking form of start(); interrupting the caller cancels the polling
+    public <T> T await(Probe<T> probe) throws PollTimeoutException, InterruptedException {
+        CompletableFuture<T> future = start(probe);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof PollTimeoutException timeoutException) {
+                throw timeoutException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private final class Attempt<T> {
+        private final Probe<T> probe;
+        private final long deadline;
+        private final long startNanos = System.nanoTime();
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private final Metrics stats = metrics.computeIfAbsent(name, key -> new Metrics());
+        private long nextIntervalMs = initialIntervalMs;
+        private int polls;
+        private Exception lastError;
+        private volatile ScheduledFuture<?> pending;
+
+        private Attempt(Probe<T> probe, long deadline) {
+            this.probe = probe;
+            this.deadline = deadline;
+        }
+
+        private void schedule(long delayMs) {
+            pending = scheduler.schedule(() -> probeThreads.newThread(this::poll).start(), delayMs, TimeUnit.MILLISECONDS);
+            if (future.isDone()) {
+                pending.cancel(false);
+            }
+        }
+
+        // Cancelling the caller's future drops the pending poll
+        private void stop() {
+            if (future.isCancelled()) {
+                stats.cancelled.increment();
+            }
+            ScheduledFuture<?> next = pending;
+            if (next != null) {
+                next.cancel(false);
+            }
+        }
+
+        private void poll() {
+            if (future.isDone()) {
+                return;
+            }
+            polls++;
+            long pollStart = System.nanoTime();
+            T result = null;
+            try {
+                result = probe.poll();
+                lastError = null;
+            } catch (Exception e) {
+                lastError = e;
+                stats.errors.increment();
+            } finally {
+                stats.pollLatency.recordNanos(System.nanoTime() - pollStart);
+                stats.polls.increment();
+            }
+            if (result != null) {
+                stats.timeToResult.recordNanos(System.nanoTime() - startNanos);
+                stats.succeeded.increment();
+                future.complete(result);
+                return;
+            }
+            long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMs <= 0) {
+                stats.timedOut.increment();
+                future.completeExceptionally(new PollTimeoutException(name, polls, timeout, lastError));
+                return;
+            }
+            long delayMs = withJitter(nextIntervalMs);
+            nextIntervalMs = Math.min(maxIntervalMs, (long) (nextIntervalMs * multiplier));
+            // The last poll lands on the deadline rather than after it
+            schedule(Math.min(delayMs, remainingMs));
+        }
+    }
+
+    private long withJitter(long intervalMs) {
+        if (jitter == 0) {
+            return intervalMs;
+        }
+        double factor = 1 + jitter * (ThreadLocalRandom.current().nextDouble() * 2 - 1);
+        return Math.max(1, Math.round(intervalMs * factor));
+    }
+
+    // Per poller name: how many polls it took, how long each one and the whole wait took, how it ended
+    private static final class Metrics {
+        private final LatencyHistogram pollLatency = new LatencyHistogram();
+        private final LatencyHistogram timeToResult = new LatencyHistogram();
+        private final LongAdder polls = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder succeeded = new LongAdder();
+        private final LongAdder timedOut = new LongAdder();
+        private final LongAdder cancelled = new LongAdder();
+    }
+
+    // e.g. "Poller[vendor_lead_details.ADDED: polls=9, errors=0, succeeded=2, timedOut=0, cancelled=0 | poll n=9, ... | wait n=2, ...]"
+    public static String describe() {
+        StringBuilder description = new StringBuilder("Poller[");
+        for (Map.Entry<String, Metrics> entry : metrics.entrySet()) {
+            Metrics stats = entry.getValue();
+            description.append(System.lineSeparator()).append("  ").append(entry.getKey())
+                    .append(": polls=").append(stats.polls.sum())
+                    .append(", errors=").append(stats.errors.sum())
+                    .append(", succeeded=").append(stats.succeeded.sum())
+                    .append(", timedOut=").append(stats.timedOut.sum())
+                    .append(", cancelled=").append(stats.cancelled.sum())
+                    .append(" | poll ").append(stats.pollLatency.describe())
+                    .append(" | wait ").append(stats.timeToResult.describe());
+        }
+        return description.append("]").toString();
+    }
+
+    public static void logStats() {
+        if (!metrics.isEmpty()) {
+            Logger.logInfo(describe());
+        }
+    }
+
+    public static class PollTimeoutException extends TimeoutException {
+        private final transient Exception lastError;
+
+        private PollTimeoutException(String name, int polls, Duration timeout, Exception lastError) {
+            super(name + " not satisfied after " + polls + " polls in " + timeout.toMillis() + " ms"
+                    + (lastError != null ? " (last error: " + lastError.getMessage() + ")" : ""));
+            this.lastError = lastError;
+        }
+
+        // Error thrown by the last poll, or null if it simply found nothing
+        public Exception getLastError() {
+            return lastError;
+        }
+    }
+}
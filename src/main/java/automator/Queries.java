@@ -2,43 +2,52 @@
 package automator;
 
 public class Queries {
-    public static final String LOAN_APP_NO =
-            "SELECT loan_application_no FROM loan_application WHERE id = ?";
-
     public static final String REVIEW_STATUS_QUERY =
             "SELECT user_data_review_status FROM loan_application WHERE id = ?";
 
+    // Followed by a bounded list of "?" placeholders and ")" (see LoanApplicationLookup)
+    public static final String BULK_LOAN_APPLICATION_QUERY_PREFIX =
+            "SELECT id, user_data_review_status, loan_application_no FROM loan_application WHERE id IN (";
+
+    // Both followed by a bounded list of "?" placeholders (see StatusSnapshot)
+    public static final String STATUS_COUNT_QUERY_PREFIX =
+            "SELECT user_data_review_status, COUNT(*) FROM loan_application WHERE app_name = ? AND user_data_review_status IN (";
+
+    public static final String STATUS_COUNT_QUERY_SUFFIX = ") GROUP BY user_data_review_status";
+
+    public static final String STATUS_ROWS_QUERY_PREFIX =
+            "SELECT id, user_data_review_status FROM loan_application WHERE app_name = ? AND user_data_review_status IN (";
+
+    // Guarded by the current status so a fixture never overwrites a move made elsewhere (see ReviewStateMachine)
+    public static final String UPDATE_REVIEW_STATUS_QUERY =
+            "UPDATE loan_application SET user_data_review_status = ? WHERE id = ? AND user_data_review_status = ?";
+
+    public static final String NACH_DOC_QUEUE_QUERY =
+            "SELECT * FROM nach_document_queue WHERE loan_application_no = ?";
+
+    public static final String INSERT_MANUAL_NACH_QUERY =
+            "INSERT INTO nach_document_queue VALUES (?, ?, 'Nach.pdf', " +
+                    "'PROCESSED', 'API', 'mv.atlas', '2020-02-01 21:38:00', '2021-02-08 22:59:36', NULL, 'APPROVED', 0, '', '', 0, NULL)";
+
     public static final String UPDATE_VKYC_INFO_QUERY =
             "UPDATE vkyc_info SET date_created = ? WHERE unique_id_ref = ?";
 
     public static final String UPDATE_VKYC_INFO_RETRYQUERY =
             "UPDATE vkyc_info SET date_modified = ? WHERE unique_id_ref = ?";
 
-    public static final String FETCH_VKYC_INFO_QUERY =
-            "SELECT status, provider, flow_type, attempts FROM vkyc_info WHERE unique_id_ref = ?";
+    // Followed by a bounded list of "?" placeholders and ")" (see VkycFixtures)
+    public static final String BULK_VKYC_INFO_QUERY_PREFIX =
+            "SELECT unique_id_ref, status, provider, flow_type, attempts, date_created, date_modified FROM vkyc_info " +
+                    "WHERE unique_id_ref IN (";
 
+    // entity_id is the loan_application_no (see LoanIdentifierCache), campaign_id the VkycCampaign
     public static final String CHECK_CALLING_SERVICE_LEADS_QUERY =
-            "SELECT entity_id FROM calling_service_leads WHERE entity_id = " +
-                    "(SELECT loan_application_no FROM loan_application WHERE id = ?) AND campaign_id = 'VKYC_NOTRY'";
+            "SELECT entity_id FROM calling_service_leads WHERE entity_id = ? AND campaign_id = ?";
 
     public static final String VERIFY_CALLING_SERVICE_LEADS_QUERY =
-            "SELECT entity_id, campaign_id, status FROM calling_service_leads WHERE entity_id = " +
-                    "(SELECT loan_application_no FROM loan_application WHERE id = ?) AND campaign_id = 'VKYC_NOTRY'";
-
-    public static final String VERIFY_VENDOR_LEAD_DETAILS_QUERY =
-            "SELECT entity_id, campaign_id, status FROM vendor_lead_details WHERE entity_id = ? " +
-                    "AND status = 'READY_TO_ADD'";
+            "SELECT entity_id, campaign_id, status FROM calling_service_leads WHERE entity_id = ? AND campaign_id = ?";
 
     public static final String VERIFY_VENDOR_LEAD_STATUS_QUERY =
             "SELECT entity_id, campaign_id, status FROM vendor_lead_details WHERE entity_id = ? " +
                     "AND status = 'ADDED'";
-
-    // New queries for VKYC_TRIED
-    public static final String CHECK_CALLING_SERVICE_LEADS_TRIED_QUERY =
-            "SELECT entity_id FROM calling_service_leads WHERE entity_id = " +
-                    "(SELECT loan_application_no FROM loan_application WHERE id = ?) AND campaign_id = 'VKYC_TRIED'";
-
-    public static final String VERIFY_CALLING_SERVICE_LEADS_TRIED_QUERY =
-            "SELECT entity_id, campaign_id, status FROM calling_service_leads WHERE entity_id = " +
-                    "(SELECT loan_application_no FROM loan_application WHERE id = ?) AND campaign_id = 'VKYC_TRIED'";
 }
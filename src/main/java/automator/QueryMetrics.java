@@ -0,0 +1,110 @@
+package automator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-statement latency figures collected by {@link JdbcInstrumentation}.
+ * <p>
+ * Statements are grouped by template: the {@link Queries} constant name when the SQL comes from the
+ * catalogue, the SQL text otherwise. Each template keeps an execution and a fetch histogram plus the
+ * number of rows read; connection borrow wait is kept per pool
+ * (e.g. LENDING, ops-03-LENDING). Statements whose execution plus fetch
+ * time exceeds db.slow_query.threshold_ms are appended to the slow-query log (db.slow_query.path).
+ */
+public class QueryMetrics {
+    private static final Map<String, Template> templates = new ConcurrentHashMap<>();
+    private static final Map<String, LatencyHistogram> borrowWait = new ConcurrentSkipListMap<>();
+    private static final long slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(ConfigManager.getSlowQueryThresholdMs());
+    private static final Path slowQueryLog = Paths.get(ConfigManager.getSlowQueryLogPath());
+    private static final DateTimeFormatter timestamp = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+
+    private static final class Template {
+        final LatencyHistogram execution = new LatencyHistogram();
+        final LatencyHistogram fetch = new LatencyHistogram();
+        final LongAdder rows = new LongAdder();
+        final LongAdder slow = new LongAdder();
+    }
+
+    private QueryMetrics() {}
+
+    public static void recordBorrow(String poolName, long nanos) {
+        borrowWait.computeIfAbsent(poolName, key -> new LatencyHistogram()).recordNanos(nanos);
+    }
+
+    public static void recordExecution(String sql, long nanos) {
+        template(sql).execution.recordNanos(nanos);
+    }
+
+    public static void recordFetch(String sql, long nanos, long rows) {
+        Template template = template(sql);
+        template.fetch.recordNanos(nanos);
+        template.rows.add(rows);
+    }
+
+    // Called once per statement execution, after its rows (if any) were read
+    public static void checkSlow(String poolName, String sql, long executionNanos,
+                                 long fetchNanos, long rows) {
+        if (executionNanos + fetchNanos < slowThresholdNanos) {
+            return;
+        }
+        template(sql).slow.increment();
+        String line = String.format("[%s] %s %.1f ms (execute=%.1f ms, fetch=%.1f ms, rows=%d) %s%n",
+                timestamp.format(LocalDateTime.now()), poolName,
+                (executionNanos + fetchNanos) / 1e6, executionNanos / 1e6, fetchNanos / 1e6, rows, nameAndSql(sql));
+        synchronized (slowQueryLog) {
+            try {
+                Files.createDirectories(slowQueryLog.toAbsolutePath().getParent());
+                Files.writeString(slowQueryLog, line, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                Logger.logError("Unable to write slow query log " + slowQueryLog + ": " + e.getMessage());
+            }
+        }
+    }
+
+    public static void logStats() {
+        StringBuilder report = new StringBuilder("Query latency by statement:");
+        Map<String, Template> byName = new TreeMap<>();
+        for (Map.Entry<String, Template> entry : templates.entrySet()) {
+            byName.put(StatementCache.nameOf(entry.getKey()), entry.getValue());
+        }
+        for (Map.Entry<String, Template> entry : byName.entrySet()) {
+            Template template = entry.getValue();
+            report.append(System.lineSeparator()).append("  ").append(entry.getKey())
+                    .append(System.lineSeparator()).append("    execute: ").append(template.execution.describe())
+                    .append(System.lineSeparator()).append("    fetch:   ").append(template.fetch.describe())
+                    .append(", rows=").append(template.rows.sum())
+                    .append(", slow=").append(template.slow.sum());
+        }
+        for (Map.Entry<String, LatencyHistogram> entry : borrowWait.entrySet()) {
+            report.append(System.lineSeparator()).append("  borrow wait ").append(entry.getKey())
+                    .append(": ").append(entry.getValue().describe());
+        }
+        Logger.logInfo(report.toString());
+    }
+
+    private static Template template(String sql) {
+        return templates.computeIfAbsent(sql == null ? "(unknown)" : sql, key -> new Template());
+    }
+
+    private static String nameAndSql(String sql) {
+        if (sql == null) {
+            return "(unknown)";
+        }
+        String name = StatementCache.nameOf(sql);
+        return name.equals(sql) ? sql : name + ": " + sql;
+    }
+}
@@ -0,0 +1,17 @@
+package automator;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares which schemas a test class talks to, so that
+ * {@link DatabaseConnection#connectToDatabases(Class)} only warms those instead of every configured database.
+ * Schemas that are not declared still connect lazily on their first getConnection().
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface RequiresSchemas {
+    DBFactory.CONNECTION_NAMES[] value();
+}
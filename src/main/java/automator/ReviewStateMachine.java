@@ -0,0 +1,227 @@
+package automator;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Declarative graph of the review-status moves the automation can make. Cheapest paths are computed
+ * once per set of usable modes and target status, on first use, and cached; a machine is immutable
+ * otherwise and can be shared by every worker of a run.
+ * <p>
+ * Each {@link Edge} says how the move is made ({@link Mode}) and how long it may take. Edges are
+ * weighted by mode (a direct DB fixture is cheaper than an HTTP call, which is cheaper than a browser
+ * round-trip), so {@link #plan} prefers fixtures and API moves where the graph offers them. The mode and
+ * timeout of any edge can be overridden in config with opsflow.edge.FROM.TO.mode / .timeout_ms.
+ * {@link #drive} walks a planned path by handing each edge to the {@link EdgeHandler} registered for its
+ * mode and stops at the first move that is not confirmed; it only plans over modes it has handlers for.
+ */
+public final class ReviewStateMachine {
+
+    public enum Mode {
+        DB(1),      // status set directly in the Lending DB (test fixture)
+        API(2),     // loans console endpoints (OpsConsoleClient)
+        CONSOLE(5), // ops console, in the browser or over HTTP depending on opsflow.transition_mode
+        UI(10);     // ops console in the browser
+
+        private final int cost;
+
+        Mode(int cost) {
+            this.cost = cost;
+        }
+
+        public int cost() {
+            return cost;
+        }
+    }
+
+    public record Edge(ReviewStatus from, ReviewStatus to, Mode mode, Duration timeout) {
+        @Override
+        public String toString() {
+            return from + " -> " + to + " (" + mode + ", " + timeout.toMillis() + " ms)";
+        }
+    }
+
+    @FunctionalInterface
+    public interface EdgeHandler {
+        // Makes the move and reports how it ended; edge.timeout() is the budget for confirming it
+        TransitionOutcome apply(String loanAppID, Edge edge) throws Exception;
+    }
+
+    private final List<Edge> edges;
+    private final Map<ReviewStatus, List<Edge>> outgoing = new EnumMap<>(ReviewStatus.class);
+    // nextHop.get(modes).get(target).get(from): first edge of the cheapest path from -> target using modes
+    private final Map<Set<Mode>, Map<ReviewStatus, Map<ReviewStatus, Edge>>> nextHop = new ConcurrentHashMap<>();
+
+    private ReviewStateMachine(List<Edge> edges) {
+        this.edges = List.copyOf(edges);
+        for (Edge edge : edges) {
+            outgoing.computeIfAbsent(edge.from(), key -> new ArrayList<>()).add(edge);
+        }
+    }
+
+    /**
+     * The review flow the ops console supports: DOCS_UPLOADED through KYC_VERIFICATION and on to
+     * LOAN_APPROVED, every move made on the console within opsflow.transition_timeout_ms.
+     */
+    public static ReviewStateMachine standard() {
+        return builder()
+                .edge(ReviewStatus.DOCS_UPLOADED, ReviewStatus.PENDING_REVIEW)
+                .edge(ReviewStatus.PENDING_REVIEW, ReviewStatus.FRAUD_REVIEW)
+                .edge(ReviewStatus.FRAUD_REVIEW, ReviewStatus.NACH_EMAIL_SENT)
+                .edge(ReviewStatus.NACH_EMAIL_SENT, ReviewStatus.KYC_VERIFICATION)
+                .edge(ReviewStatus.KYC_VERIFICATION, ReviewStatus.MV_COMPLIANCE)
+                .edge(ReviewStatus.MV_COMPLIANCE, ReviewStatus.LOAN_APPROVED)
+                .build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private final List<Edge> edges = new ArrayList<>();
+
+        private Builder() {}
+
+        public Builder edge(ReviewStatus from, ReviewStatus to) {
+            return edge(from, to, Mode.CONSOLE, Duration.ofMillis(ConfigManager.getOpsflowTransitionTimeoutMs()));
+        }
+
+        // Config overrides (opsflow.edge.FROM.TO.mode / .timeout_ms) win over what is declared here
+        public Builder edge(ReviewStatus from, ReviewStatus to, Mode mode, Duration timeout) {
+            String prefix = "opsflow.edge." + from + "." + to + ".";
+            String configuredMode = ConfigManager.getProperty(prefix + "mode");
+            String configuredTimeout = ConfigManager.getProperty(prefix + "timeout_ms");
+            if (configuredMode != null && !configuredMode.isBlank()) {
+                mode = Mode.valueOf(configuredMode.trim().toUpperCase());
+            }
+            if (configuredTimeout != null && !configuredTimeout.isBlank()) {
+                timeout = Duration.ofMillis(Long.parseLong(configuredTimeout.trim()));
+            }
+            edges.add(new Edge(from, to, mode, timeout));
+            return this;
+        }
+
+        public ReviewStateMachine build() {
+            return new ReviewStateMachine(edges);
+        }
+    }
+
+    /**
+     * The cheapest sequence of edges from {@code from} to {@code to}: empty when they are the same
+     * status, null when {@code to} cannot be reached.
+     */
+    public List<Edge> plan(ReviewStatus from, ReviewStatus to) {
+        return plan(from, to, EnumSet.allOf(Mode.class));
+    }
+
+    // Same, using only edges whose mode is in {@code modes}
+    public List<Edge> plan(ReviewStatus from, ReviewStatus to, Set<Mode> modes) {
+        Map<ReviewStatus, Edge> hops = nextHops(to, modes);
+        List<Edge> path = new ArrayList<>();
+        for (ReviewStatus status = from; status != to; ) {
+            Edge edge = hops.get(status);
+            if (edge == null) {
+                return null;
+            }
+            path.add(edge);
+            status = edge.to();
+        }
+        return path;
+    }
+
+    /**
+     * Walks the planned path from {@code from} to {@code to}, handing each edge to the handler for its
+     * mode. Returns the outcome of the last move made: CONFIRMED with {@code to} as status when the target
+     * was reached, otherwise the first outcome that was not confirmed.
+     *
+     * @throws IllegalStateException if there is no path using the modes {@code handlers} covers
+     */
+    public TransitionOutcome drive(String loanAppID, ReviewStatus from, ReviewStatus to, Map<Mode, EdgeHandler> handlers)
+            throws Exception {
+        List<Edge> path = plan(from, to, handlers.keySet());
+        if (path == null) {
+            throw new IllegalStateException("No transition path from " + from + " to " + to + " using " + handlers.keySet());
+        }
+        TransitionOutcome outcome = new TransitionOutcome(TransitionOutcome.Kind.CONFIRMED, from.name(), null, 0);
+        for (Edge edge : path) {
+            EdgeHandler handler = handlers.get(edge.mode());
+            if (handler == null) {
+                throw new IllegalStateException("No handler for " + edge);
+            }
+            Logger.logInfo("Attempting to transition " + loanAppID + ": " + edge);
+            outcome = handler.apply(loanAppID, edge);
+            if (!outcome.isConfirmed()) {
+                return outcome;
+            }
+        }
+        return outcome;
+    }
+
+    // e.g. "DOCS_UPLOADED -> PENDING_REVIEW -> FRAUD_REVIEW", or "unreachable"
+    public String describePlan(ReviewStatus from, ReviewStatus to) {
+        return describePlan(from, to, EnumSet.allOf(Mode.class));
+    }
+
+    public String describePlan(ReviewStatus from, ReviewStatus to, Set<Mode> modes) {
+        List<Edge> path = plan(from, to, modes);
+        if (path == null) {
+            return "unreachable";
+        }
+        StringBuilder description = new StringBuilder(from.name());
+        for (Edge edge : path) {
+            description.append(" -> ").append(edge.to());
+        }
+        return description.toString();
+    }
+
+    public List<Edge> getEdges(ReviewStatus from) {
+        return Collections.unmodifiableList(outgoing.getOrDefault(from, List.of()));
+    }
+
+    private Map<ReviewStatus, Edge> nextHops(ReviewStatus target, Set<Mode> modes) {
+        EnumSet<Mode> key = EnumSet.noneOf(Mode.class);
+        key.addAll(modes);
+        return nextHop.computeIfAbsent(key, usableModes -> new ConcurrentHashMap<>())
+                .computeIfAbsent(target, status -> {
+                    List<Edge> usable = new ArrayList<>();
+                    for (Edge edge : edges) {
+                        if (key.contains(edge.mode())) {
+                            usable.add(edge);
+                        }
+                    }
+                    return shortestPathsTo(status, usable);
+                });
+    }
+
+    // Dijkstra on the reversed graph, keeping the first edge of the cheapest path from each status
+    private static Map<ReviewStatus, Edge> shortestPathsTo(ReviewStatus target, List<Edge> edges) {
+        Map<ReviewStatus, List<Edge>> incoming = new EnumMap<>(ReviewStatus.class);
+        for (Edge edge : edges) {
+            incoming.computeIfAbsent(edge.to(), key -> new ArrayList<>()).add(edge);
+        }
+        Map<ReviewStatus, Integer> cost = new EnumMap<>(ReviewStatus.class);
+        Map<ReviewStatus, Edge> hops = new EnumMap<>(ReviewStatus.class);
+        PriorityQueue<Map.Entry<ReviewStatus, Integer>> queue = new PriorityQueue<>(Map.Entry.comparingByValue());
+        cost.put(target, 0);
+        queue.add(Map.entry(target, 0));
+        Set<ReviewStatus> settled = EnumSet.noneOf(ReviewStatus.class);
+        while (!queue.isEmpty()) {
+            ReviewStatus status = queue.poll().getKey();
+            if (!settled.add(status)) {
+                continue;
+            }
+            for (Edge edge : incoming.getOrDefault(status, List.of())) {
+                int candidate = cost.get(status) + edge.mode().cost();
+                Integer known = cost.get(edge.from());
+                if (known == null || candidate < known) {
+                    cost.put(edge.from(), candidate);
+                    hops.put(edge.from(), edge);
+                    queue.add(Map.entry(edge.from(), candidate));
+                }
+            }
+        }
+        return hops;
+    }
+}
@@ -0,0 +1,57 @@
+package automator;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * loan_application.user_data_review_status values the automation cares about.
+ * Statuses not listed here map to {@link #UNKNOWN} so new server-side values never break a snapshot.
+ */
+public enum ReviewStatus {
+    DOCS_UPLOADED,
+    PENDING_REVIEW,
+    FRAUD_REVIEW,
+    NACH_EMAIL_SENT,
+    KYC_VERIFICATION,
+    MV_COMPLIANCE,
+    LOAN_APPROVED,
+    READY_FOR_DISBURSAL,
+    DISBURSAL_INITIATED,
+    DISBURSAL_FAILED,
+    DISBURSED,
+    SYSTEM_CANCELLED,
+    REJECTED,
+    TEST_IGNORE,
+    UNKNOWN;
+
+    // Review stages an application passes through before disbursal
+    public static final Set<ReviewStatus> IN_REVIEW = EnumSet.range(DOCS_UPLOADED, LOAN_APPROVED);
+
+    // Applications in these stages must never be cancelled
+    public static final Set<ReviewStatus> DISBURSAL = EnumSet.range(READY_FOR_DISBURSAL, DISBURSED);
+
+    private static final ReviewStatus[] values = values();
+    private static final Map<String, ReviewStatus> byName = new HashMap<>();
+
+    static {
+        for (ReviewStatus status : values) {
+            byName.put(status.name(), status);
+        }
+    }
+
+    public static ReviewStatus of(String name) {
+        ReviewStatus status = name == null ? null : byName.get(name);
+        return status == null ? UNKNOWN : status;
+    }
+
+    // Compact code for storing statuses in a byte[] (see StatusSnapshot)
+    public byte code() {
+        return (byte) ordinal();
+    }
+
+    public static ReviewStatus fromCode(byte code) {
+        return values[code];
+    }
+}
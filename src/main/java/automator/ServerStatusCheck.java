@@ -1,77 +1,149 @@
-
 package automator;
-import com.mysql.cj.log.Log;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
 
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.Properties;
-
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Pre-flight probe of the Lending, Credit and Asgard servers of one or more environments.
+ * <p>
+ * Every endpoint of every requested environment is probed at the same time, so the worst case is one
+ * 5 s timeout rather than one per server. Results are cached per environment for server_check.ttl_ms,
+ * so every test class in a suite shares the first class's check. Servers without a configured path
+ * (LendingServer / CreditServer / AsgardServer) are reported as skipped rather than down.
+ */
 public class ServerStatusCheck {
 
-    private static boolean serverCheckCompleted = false;
-
-    public static void main(String[] args) {
-        if (!serverCheckCompleted) {
-            Properties properties = new Properties();
-            try {
-                FileInputStream input = new FileInputStream("src/main/resources/config.properties");
-                properties.load(input);
+    // Shares HttpTransport's connection pool, with the 5 s limit the probes always had
+    private static final OkHttpClient probeClient = HttpTransport.withTimeout(Duration.ofSeconds(5));
+    private static final Map<String, CachedStatus> cache = new ConcurrentHashMap<>();
+
+    // server name, property holding its path, what a healthy response serves (logged next to UP)
+    private static final String[][] servers = {
+            {"Lending", "LendingServer", "Loans page"},
+            {"Credit", "CreditServer", "Swagger"},
+            {"Asgard", "AsgardServer", "SUCCESS message"},
+    };
+
+    public record ProbeResult(String environment, String server, String url, String expected, int statusCode,
+                              long latencyMs, String error) {
+        public boolean isSkipped() {
+            return url == null;
+        }
 
-                String environment = properties.getProperty("environment");
-                //logger.info("Connecting to environment: " + environment);
-                //Logger.logInfo(getTimestamp() + "Connecting to environment: " + environment);
+        public boolean isUp() {
+            return !isSkipped() && error == null && statusCode == 200;
+        }
+    }
 
-                String lendingServerUrl = "https://" + environment + ".stg.whizdm.com" + properties.getProperty("LendingServer");
-                String creditServerUrl = "https://" + environment + ".stg.whizdm.com" + properties.getProperty("CreditServer");
-                String asgardServerUrl = "https://" + environment + ".stg.whizdm.com" + properties.getProperty("AsgardServer");
+    private record CachedStatus(List<ProbeResult> results, long checkedAt) {
+        boolean isFresh() {
+            return System.currentTimeMillis() - checkedAt < ConfigManager.getServerCheckTtlMs();
+        }
+    }
 
-                checkServerStatus("Lending", lendingServerUrl, "Loans page");
-                checkServerStatus("Credit", creditServerUrl, "Swagger");
-                checkServerStatus("Asgard", asgardServerUrl, "SUCCESS message");
+    // No arguments checks the configured environment; otherwise every environment given (e.g. ops-01 ops-03)
+    public static void main(String[] args) {
+        if (args == null || args.length == 0) {
+            check(ConfigManager.getEnvironment());
+        } else {
+            check(args);
+        }
+    }
 
-                serverCheckCompleted = true;
+    // Probes the environments whose cached result is missing or expired; returns results for all of them
+    public static List<ProbeResult> check(String... environments) {
+        List<String> stale = new ArrayList<>();
+        for (String environment : environments) {
+            CachedStatus cached = cache.get(environment);
+            if (cached == null || !cached.isFresh()) {
+                stale.add(environment);
+            }
+        }
+        if (!stale.isEmpty()) {
+            probe(stale);
+        }
 
-            } catch (IOException e) {
-                Logger.logInfo("ERROR loading properties file: " + e.getMessage());
+        List<ProbeResult> results = new ArrayList<>();
+        for (String environment : environments) {
+            CachedStatus cached = cache.get(environment);
+            if (cached != null) {
+                results.addAll(cached.results());
             }
         }
+        return results;
     }
 
-    private static void checkServerStatus(String dbName, String serverUrl, String expectedMessage) {
-        try {
-            if (serverUrl != null && !serverUrl.isEmpty()) {
-                HttpURLConnection connection = (HttpURLConnection) new URL(serverUrl).openConnection();
-                connection.setRequestMethod("GET");
-                connection.setConnectTimeout(5000);
-                connection.setReadTimeout(5000);
-
-                int responseCode = connection.getResponseCode();
-                String responseMessage = connection.getResponseMessage();
-
-                if (responseCode == 200) {
-                    Logger.logInfo(" INFO: " + dbName + " Server is up! Expected: " + expectedMessage + ". Response: " + responseMessage);
-                } else {
-                    Logger.logInfo(" ERROR: " + dbName + " Server is down! Response code: " + responseCode + " (" + responseMessage + ")");
+    private static void probe(List<String> environments) {
+        Map<String, List<Future<ProbeResult>>> futures = new LinkedHashMap<>();
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String environment : environments) {
+                List<Future<ProbeResult>> environmentFutures = new ArrayList<>();
+                for (String[] server : servers) {
+                    String path = ConfigManager.getProperty(server[1]);
+                    String url = path == null || path.isEmpty() ? null : "https://" + environment + ".stg.whizdm.com" + path;
+                    environmentFutures.add(executor.submit(() -> checkServerStatus(environment, server[0], url, server[2])));
                 }
+                futures.put(environment, environmentFutures);
+            }
+        }
 
-            } else {
-                Logger.logInfo(" ERROR: No URL found for " + dbName + " server.");
+        StringBuilder report = new StringBuilder("Server status (" + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms):");
+        for (Map.Entry<String, List<Future<ProbeResult>>> entry : futures.entrySet()) {
+            List<ProbeResult> results = new ArrayList<>();
+            for (Future<ProbeResult> future : entry.getValue()) {
+                ProbeResult result = future.resultNow();
+                results.add(result);
+                report.append(System.lineSeparator()).append(String.format("  %-8s %-8s %-8s %6d ms %s",
+                        result.environment(), result.server(),
+                        result.isSkipped() ? "SKIPPED" : result.isUp() ? "UP" : "DOWN", result.latencyMs(),
+                        result.error() != null ? result.error() : result.isSkipped() ? "no URL configured"
+                                : "HTTP " + result.statusCode() + ", expected: " + result.expected()));
             }
-        } catch (IOException e) {
-            Logger.logInfo(" ERROR: " + dbName + " Server check failed. Error: " + e.getMessage());
+            cache.put(entry.getKey(), new CachedStatus(List.copyOf(results), System.currentTimeMillis()));
         }
+        Logger.logInfo(report.toString());
     }
 
-    private static String getTimestamp() {
-        SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss");
-        return "[" + sdf.format(new Date()) + "]";
+    private static ProbeResult checkServerStatus(String environment, String server, String serverUrl, String expected) {
+        if (serverUrl == null) {
+            return new ProbeResult(environment, server, null, expected, 0, 0, null);
+        }
+        long start = System.nanoTime();
+        try {
+            Request request = new Request.Builder().url(serverUrl).get().build();
+            try (Response response = probeClient.newCall(request).execute()) {
+                long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                return new ProbeResult(environment, server, serverUrl, expected, response.code(), latencyMs,
+                        response.code() == 200 ? null : "HTTP " + response.code() + " (" + response.message() + ")");
+            }
+        } catch (IOException | RuntimeException e) {
+            // Malformed URLs surface as IllegalArgumentException; report them like any other failure
+            long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            return new ProbeResult(environment, server, serverUrl, expected, 0, latencyMs, e.getMessage());
+        }
     }
 
+    // True while a fresh check of the configured environment found no server down
     public static boolean isServerCheckCompleted() {
-        return serverCheckCompleted;
+        return isServerCheckCompleted(ConfigManager.getEnvironment());
+    }
+
+    public static boolean isServerCheckCompleted(String environment) {
+        CachedStatus cached = cache.get(environment);
+        if (cached == null || !cached.isFresh()) {
+            return false;
+        }
+        for (ProbeResult result : cached.results()) {
+            if (!result.isSkipped() && !result.isUp()) {
+                return false;
+            }
+        }
+        return true;
     }
 }
@@ -0,0 +1,112 @@
+package automator;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Entry point for preparing the {@link Queries} catalogue on a pooled connection.
+ * <p>
+ * The statements themselves are cached by MySQL Connector/J (cachePrepStmts + useServerPrepStmts, enabled
+ * by {@link ConnectionPool}): closing a cached PreparedStatement parks it in the physical connection's LRU
+ * instead of deallocating it on the server, so the next prepareStatement of the same SQL only rebinds.
+ * On a hit the driver hands back the very statement object it parked, so a prepare is counted as a hit
+ * when the unwrapped driver statement has been returned before and as a miss (a server round-trip to
+ * prepare) otherwise. With server-side prepare off every prepare is a new object and counts as a miss.
+ */
+public class StatementCache {
+    private static final Map<String, Counters> counters = new ConcurrentHashMap<>();
+    // Driver statements handed out so far; weak, so statements the driver evicts can be collected
+    private static final Map<PreparedStatement, Boolean> seen = Collections.synchronizedMap(new WeakHashMap<>());
+    private static final Map<String, String> queryNames = loadQueryNames();
+
+    private static final class Counters {
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+    }
+
+    private StatementCache() {}
+
+    public static PreparedStatement prepare(Connection conn, String sql) throws SQLException {
+        PreparedStatement stmt = conn.prepareStatement(sql);
+        // Pool and instrumentation proxies pass unwrap through to the driver's own statement
+        PreparedStatement driverStatement = stmt.unwrap(PreparedStatement.class);
+        Counters stats = counters.computeIfAbsent(sql, key -> new Counters());
+        if (driverStatement != null && seen.put(driverStatement, Boolean.TRUE) != null) {
+            stats.hits.increment();
+        } else {
+            stats.misses.increment();
+        }
+        return stmt;
+    }
+
+    public static long getHitCount() {
+        long total = 0;
+        for (Counters stats : counters.values()) {
+            total += stats.hits.sum();
+        }
+        return total;
+    }
+
+    public static long getMissCount() {
+        long total = 0;
+        for (Counters stats : counters.values()) {
+            total += stats.misses.sum();
+        }
+        return total;
+    }
+
+    public static double getHitRate() {
+        return hitRate(getHitCount(), getMissCount());
+    }
+
+    // e.g. "Prepared statements: hits=57, misses=6, hitRate=90.5%" and one line per Queries constant
+    public static void logStats() {
+        Map<String, long[]> byName = new TreeMap<>();
+        for (Map.Entry<String, Counters> entry : counters.entrySet()) {
+            long[] totals = byName.computeIfAbsent(nameOf(entry.getKey()), key -> new long[2]);
+            totals[0] += entry.getValue().hits.sum();
+            totals[1] += entry.getValue().misses.sum();
+        }
+        StringBuilder report = new StringBuilder(String.format("Prepared statements: hits=%d, misses=%d, hitRate=%.1f%%",
+                getHitCount(), getMissCount(), getHitRate() * 100));
+        for (Map.Entry<String, long[]> entry : byName.entrySet()) {
+            long[] totals = entry.getValue();
+            report.append(System.lineSeparator()).append(String.format("  %-45s hits=%d, misses=%d, hitRate=%.1f%%",
+                    entry.getKey(), totals[0], totals[1], hitRate(totals[0], totals[1]) * 100));
+        }
+        Logger.logInfo(report.toString());
+    }
+
+    private static double hitRate(long hits, long misses) {
+        long prepares = hits + misses;
+        return prepares == 0 ? 0.0 : (double) hits / prepares;
+    }
+
+    // Queries constant name for a SQL string, or the SQL itself for ad-hoc statements
+    static String nameOf(String sql) {
+        return queryNames.getOrDefault(sql, sql);
+    }
+
+    private static Map<String, String> loadQueryNames() {
+        Map<String, String> names = new HashMap<>();
+        for (Field field : Queries.class.getFields()) {
+            if (Modifier.isStatic(field.getModifiers()) && field.getType() == String.class) {
+                try {
+                    names.put((String) field.get(null), field.getName());
+                } catch (IllegalAccessException ignored) {
+                }
+            }
+        }
+        return names;
+    }
+}
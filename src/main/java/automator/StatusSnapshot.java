@@ -0,0 +1,168 @@
+package automator;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Point-in-time view of loan_application.user_data_review_status for one app_name.
+ * <p>
+ * Per-status counts are aggregated on the server (GROUP BY) and used to size the row arrays up front;
+ * the rows themselves are streamed through a forward-only cursor into an id array and a parallel
+ * byte[] of {@link ReviewStatus} codes, so large tables never materialise as lists of status strings.
+ * Comparing two snapshots is a hash lookup per row of the later one.
+ */
+public final class StatusSnapshot {
+    private final EnumMap<ReviewStatus, Integer> counts;
+    private final String[] ids;
+    private final byte[] codes;
+    private final int size;
+    private Map<String, Integer> index;
+
+    private StatusSnapshot(EnumMap<ReviewStatus, Integer> counts, String[] ids, byte[] codes, int size) {
+        this.counts = counts;
+        this.ids = ids;
+        this.codes = codes;
+        this.size = size;
+    }
+
+    public static StatusSnapshot capture(Connection conn, String appName, Set<ReviewStatus> statuses)
+            throws SQLException {
+        List<String> names = new ArrayList<>(statuses.size());
+        for (ReviewStatus status : statuses) {
+            names.add(status.name());
+        }
+
+        EnumMap<ReviewStatus, Integer> counts = new EnumMap<>(ReviewStatus.class);
+        int expected = 0;
+        String countSql = Queries.STATUS_COUNT_QUERY_PREFIX + InClause.placeholders(names.size())
+                + Queries.STATUS_COUNT_QUERY_SUFFIX;
+        try (PreparedStatement stmt = StatementCache.prepare(conn, countSql)) {
+            stmt.setString(1, appName);
+            InClause.bind(stmt, 2, names, names.size());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    int count = rs.getInt(2);
+                    counts.merge(ReviewStatus.of(rs.getString(1)), count, Integer::sum);
+                    expected += count;
+                }
+            }
+        }
+
+        // Rows may change between the two queries, so the arrays still grow if needed
+        String[] ids = new String[Math.max(expected, 16)];
+        byte[] codes = new byte[ids.length];
+        int size = 0;
+        String rowSql = Queries.STATUS_ROWS_QUERY_PREFIX + InClause.placeholders(names.size()) + ")";
+        // Default statements are TYPE_FORWARD_ONLY / CONCUR_READ_ONLY, which lets useCursorFetch stream the rows
+        try (PreparedStatement stmt = StatementCache.prepare(conn, rowSql)) {
+            stmt.setFetchSize(ConfigManager.getLookupFetchSize());
+            stmt.setString(1, appName);
+            InClause.bind(stmt, 2, names, names.size());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    if (size == ids.length) {
+                        ids = Arrays.copyOf(ids, size * 2);
+                        codes = Arrays.copyOf(codes, size * 2);
+                    }
+                    ids[size] = rs.getString(1);
+                    codes[size] = ReviewStatus.of(rs.getString(2)).code();
+                    size++;
+                }
+            }
+        }
+        return new StatusSnapshot(counts, ids, codes, size);
+    }
+
+    /**
+     * Re-reads the rows of this snapshot and keeps those now in one of {@code statuses}, e.g. which of the
+     * applications captured before a cron it moved to SYSTEM_CANCELLED. Only this snapshot's ids are fetched,
+     * in bounded id batches, so rows that already had the status before are never loaded.
+     */
+    public StatusSnapshot recapture(Connection conn, Set<ReviewStatus> statuses) throws SQLException {
+        EnumMap<ReviewStatus, Integer> laterCounts = new EnumMap<>(ReviewStatus.class);
+        String[] laterIds = new String[Math.max(size, 16)];
+        byte[] laterCodes = new byte[laterIds.length];
+        int laterSize = 0;
+        int batchSize = Math.min(ConfigManager.getLookupBatchSize(), InClause.MAX_SIZE);
+        for (List<String> batch : InClause.partition(Arrays.asList(ids).subList(0, size), batchSize)) {
+            int bucket = InClause.bucketSize(batch.size(), batchSize);
+            String sql = Queries.BULK_LOAN_APPLICATION_QUERY_PREFIX + InClause.placeholders(bucket) + ")";
+            try (PreparedStatement stmt = StatementCache.prepare(conn, sql)) {
+                stmt.setFetchSize(ConfigManager.getLookupFetchSize());
+                InClause.bind(stmt, 1, batch, bucket);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        ReviewStatus status = ReviewStatus.of(rs.getString(2));
+                        if (!statuses.contains(status)) {
+                            continue;
+                        }
+                        // IN returns each row once despite the padding, so at most size rows come back
+                        laterIds[laterSize] = rs.getString(1);
+                        laterCodes[laterSize] = status.code();
+                        laterSize++;
+                        laterCounts.merge(status, 1, Integer::sum);
+                    }
+                }
+            }
+        }
+        return new StatusSnapshot(laterCounts, laterIds, laterCodes, laterSize);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Server-side count captured alongside the rows
+    public int count(ReviewStatus status) {
+        return counts.getOrDefault(status, 0);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // null when the id is not part of this snapshot
+    public ReviewStatus statusOf(String id) {
+        Integer position = index().get(id);
+        return position == null ? null : ReviewStatus.fromCode(codes[position]);
+    }
+
+    /**
+     * Groups the rows of {@code later} that were already present here by the status they had in this
+     * snapshot, e.g. before.transitionsTo(after).get(PENDING_REVIEW) lists the ids that moved from
+     * PENDING_REVIEW to whatever {@code later} captured.
+     */
+    public EnumMap<ReviewStatus, List<String>> transitionsTo(StatusSnapshot later) {
+        EnumMap<ReviewStatus, List<String>> transitions = new EnumMap<>(ReviewStatus.class);
+        for (int i = 0; i < later.size; i++) {
+            ReviewStatus previous = statusOf(later.ids[i]);
+            if (previous != null) {
+                transitions.computeIfAbsent(previous, status -> new ArrayList<>()).add(later.ids[i]);
+            }
+        }
+        return transitions;
+    }
+
+    // e.g. "StatusSnapshot[rows=1200, PENDING_REVIEW=800, LOAN_APPROVED=400]"
+    public String describe() {
+        StringBuilder sb = new StringBuilder("StatusSnapshot[rows=").append(size);
+        for (Map.Entry<ReviewStatus, Integer> entry : counts.entrySet()) {
+            sb.append(", ").append(entry.getKey()).append('=').append(entry.getValue());
+        }
+        return sb.append(']').toString();
+    }
+
+    // Built on first use; later snapshots are usually only iterated, never probed
+    private Map<String, Integer> index() {
+        if (index == null) {
+            index = new HashMap<>((int) (size / 0.75f) + 1);
+            for (int i = 0; i < size; i++) {
+                index.put(ids[i], i);
+            }
+        }
+        return index;
+    }
+}
@@ -0,0 +1,228 @@
+package automator;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Multiplexes "wait until table.column reaches one of these values" checks.
+ * <p>
+ * Callers register a watch and get a CompletableFuture back. A single background thread batches every
+ * outstanding watch on the same (schema, table, key column, value column) into one
+ * {@code SELECT key, value ... WHERE key IN (...)} per tick, so 50 parallel applications cost one query
+ * per tick instead of 50. The tick interval starts at status_watcher.min_interval_ms, doubles while
+ * nothing changes up to status_watcher.max_interval_ms, and snaps back as soon as a watch resolves
+ * or a new one is registered.
+ * <p>
+ * Watches are grouped per environment too, and each group reads from the pool
+ * {@link EnvironmentContext#getDataBase} gives for that environment.
+ */
+public class StatusWatcher {
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+    private static StatusWatcher instance;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "status-watcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final List<Watch> watches = new CopyOnWriteArrayList<>();
+    private final long minIntervalMs = ConfigManager.getStatusWatcherMinIntervalMs();
+    private final long maxIntervalMs = ConfigManager.getStatusWatcherMaxIntervalMs();
+    private final AtomicLong ticks = new AtomicLong();
+    private final AtomicLong queries = new AtomicLong();
+
+    private long currentIntervalMs = minIntervalMs;
+    private boolean woken;
+    private ScheduledFuture<?> nextTick;
+
+    private StatusWatcher() {}
+
+    public static synchronized StatusWatcher getInstance() {
+        if (instance == null) {
+            instance = new StatusWatcher();
+        }
+        return instance;
+    }
+
+    /**
+     * Watches {@code table.valueColumn} of the row whose {@code keyColumn = key} until it holds one of
+     * expectedValues. The future completes with the value that was seen, or exceptionally with a
+     * {@link WatchTimeoutException} (carrying the last value observed) once the timeout elapses.
+     * Cancelling the future drops the watch.
+     */
+    public CompletableFuture<String> watch(String environment, DBFactory.CONNECTION_NAMES schema, String table,
+                                           String keyColumn, String key, String valueColumn,
+                                           Set<String> expectedValues, Duration timeout) {
+        Watch watch = new Watch(new Target(environment, schema, identifier(table), identifier(keyColumn),
+                identifier(valueColumn)), key, Set.copyOf(expectedValues), System.nanoTime() + timeout.toNanos());
+        watches.add(watch);
+        wakeUp();
+        return watch.future;
+    }
+
+    // Watches against the environment set in config.properties
+    public CompletableFuture<String> watch(DBFactory.CONNECTION_NAMES schema, String table, String keyColumn,
+                                           String key, String valueColumn, Set<String> expectedValues,
+                                           Duration timeout) {
+        return watch(ConfigManager.getEnvironment(), schema, table, keyColumn, key, valueColumn, expectedValues,
+                timeout);
+    }
+
+    public CompletableFuture<String> watch(DBFactory.CONNECTION_NAMES schema, String table, String keyColumn,
+                                           String key, String valueColumn, String expectedValue, Duration timeout) {
+        return watch(schema, table, keyColumn, key, valueColumn, Set.of(expectedValue), timeout);
+    }
+
+    public int getActiveWatchCount() {
+        return watches.size();
+    }
+
+    // e.g. "StatusWatcher[watches=3, ticks=42, queries=42, interval=2000 ms]"
+    public synchronized String describe() {
+        return "StatusWatcher[watches=" + watches.size() + ", ticks=" + ticks.get() + ", queries=" + queries.get()
+                + ", interval=" + currentIntervalMs + " ms]";
+    }
+
+    private static String identifier(String name) {
+        if (name == null || !IDENTIFIER.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid SQL identifier for StatusWatcher: " + name);
+        }
+        return name;
+    }
+
+    // A new watch should be checked right away rather than after the current back-off interval
+    private synchronized void wakeUp() {
+        woken = true;
+        currentIntervalMs = minIntervalMs;
+        if (nextTick == null || nextTick.getDelay(TimeUnit.MILLISECONDS) > 0) {
+            if (nextTick != null) {
+                nextTick.cancel(false);
+            }
+            nextTick = scheduler.schedule(this::tick, 0, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void tick() {
+        boolean progressed = false;
+        try {
+            ticks.incrementAndGet();
+            long now = System.nanoTime();
+            Map<Target, List<Watch>> groups = new HashMap<>();
+            for (Watch watch : watches) {
+                if (watch.future.isDone()) {
+                    watches.remove(watch);
+                } else if (now - watch.deadline >= 0) {
+                    watch.future.completeExceptionally(new WatchTimeoutException(watch));
+                    watches.remove(watch);
+                } else {
+                    groups.computeIfAbsent(watch.target, target -> new ArrayList<>()).add(watch);
+                }
+            }
+            for (Map.Entry<Target, List<Watch>> group : groups.entrySet()) {
+                progressed |= poll(group.getKey(), group.getValue());
+            }
+        } catch (RuntimeException e) {
+            Logger.logError("Status watcher tick failed: " + e.getMessage());
+        } finally {
+            scheduleNext(progressed);
+        }
+    }
+
+    private synchronized void scheduleNext(boolean progressed) {
+        if (watches.isEmpty()) {
+            nextTick = null;
+            return;
+        }
+        currentIntervalMs = progressed || woken ? minIntervalMs : Math.min(currentIntervalMs * 2, maxIntervalMs);
+        woken = false;
+
+        // Never sleep past the earliest deadline, so timeouts are reported on time
+        long now = System.nanoTime();
+        long delayMs = currentIntervalMs;
+        for (Watch watch : watches) {
+            delayMs = Math.min(delayMs, Math.max(0, TimeUnit.NANOSECONDS.toMillis(watch.deadline - now)));
+        }
+        nextTick = scheduler.schedule(this::tick, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    // One IN (...) query per chunk of keys for this target; returns true if any watch resolved
+    private boolean poll(Target target, List<Watch> group) {
+        Map<String, List<Watch>> byKey = new LinkedHashMap<>();
+        for (Watch watch : group) {
+            byKey.computeIfAbsent(watch.key, key -> new ArrayList<>()).add(watch);
+        }
+
+        boolean progressed = false;
+        try (Connection conn = EnvironmentContext.of(target.environment).getDataBase(target.schema).getConnection()) {
+            for (List<String> keys : InClause.partition(byKey.keySet(), InClause.MAX_SIZE)) {
+                int bucket = InClause.bucketSize(keys.size(), InClause.MAX_SIZE);
+                String sql = "SELECT " + target.keyColumn + ", " + target.valueColumn + " FROM " + target.table
+                        + " WHERE " + target.keyColumn + " IN (" + InClause.placeholders(bucket) + ")";
+                try (PreparedStatement stmt = StatementCache.prepare(conn, sql)) {
+                    InClause.bind(stmt, 1, keys, bucket);
+                    queries.incrementAndGet();
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            List<Watch> keyWatches = byKey.get(rs.getString(1));
+                            if (keyWatches == null) {
+                                continue;
+                            }
+                            String value = rs.getString(2);
+                            for (Watch watch : keyWatches) {
+                                watch.lastObserved = value;
+                                if (watch.expectedValues.contains(value) && watch.future.complete(value)) {
+                                    watches.remove(watch);
+                                    progressed = true;
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            // Transient DB trouble: keep the watches and try again on the next tick
+            Logger.logError("Status watcher query on " + target.table + " failed: " + e.getMessage());
+        }
+        return progressed;
+    }
+
+    private record Target(String environment, DBFactory.CONNECTION_NAMES schema, String table, String keyColumn, String valueColumn) {}
+
+    private static final class Watch {
+        private final Target target;
+        private final String key;
+        private final Set<String> expectedValues;
+        private final long deadline;
+        private final CompletableFuture<String> future = new CompletableFuture<>();
+        private volatile String lastObserved;
+
+        private Watch(Target target, String key, Set<String> expectedValues, long deadline) {
+            this.target = target;
+            this.key = key;
+            this.expectedValues = expectedValues;
+            this.deadline = deadline;
+        }
+    }
+
+    public static class WatchTimeoutException extends TimeoutException {
+        private final String lastObserved;
+
+        private WatchTimeoutException(Watch watch) {
+            super(watch.target.table + "." + watch.target.valueColumn + " for " + watch.key + " did not reach "
+                    + watch.expectedValues + " in time (last seen: " + watch.lastObserved + ")");
+            this.lastObserved = watch.lastObserved;
+        }
+
+        // Last value seen before the deadline, or null if the row was never found
+        public String getLastObserved() {
+            return lastObserved;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package automator;
+
+import com.microsoft.playwright.Locator;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.Request;
+import com.microsoft.playwright.Response;
+import com.microsoft.playwright.TimeoutError;
+import com.microsoft.playwright.options.WaitForSelectorState;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * How a Save in the ops console ended, decided by racing the three signals that can tell: the
+ * user_data_review_status change in the Lending DB, the Save POST's HTTP response and a
+ * "Failed to move" .alert.alert-danger banner. Whichever decides first wins, so a successful move is confirmed as soon
+ * as the DB shows it instead of after a banner timeout, and a failure surfaces as soon as the banner or
+ * an error response appears instead of after the DB timeout. A 2xx Save response alone decides nothing;
+ * the backend may still reject the move. The response to a POST to opsflow.save_url_pattern that the Save itself
+ * issued counts, or, when none matches, that of any other POST the Save issued; banners left over from an earlier
+ * attempt are counted before saving and ignored.
+ * <p>
+ * Playwright objects may only be used on the page's thread, so the page side is checked in slices of
+ * opsflow.outcome_poll_ms (a banner waitFor, during which the response listener is dispatched) while the
+ * DB side completes on the StatusWatcher thread, reading the Lending DB of the environment being driven.
+ */
+public record TransitionOutcome(Kind kind, String status, String detail, long elapsedMs) {
+
+    public enum Kind {
+        CONFIRMED,       // status reached the expected value
+        TERMINAL_STATUS, // status moved to TEST_IGNORE or REJECTED
+        ERROR_BANNER,    // the page showed a "Failed to move" banner
+        SAVE_FAILED,     // the Save POST returned 4xx/5xx
+        TIMED_OUT        // none of the above within the timeout
+    }
+
+    private static final String ERROR_BANNER_SELECTOR = ".alert.alert-danger";
+    private static final String FAILED_TO_MOVE = "Failed to move";
+    private static final Set<String> TERMINAL_STATUSES = Set.of("TEST_IGNORE", "REJECTED");
+
+    public boolean isConfirmed() {
+        return kind == Kind.CONFIRMED;
+    }
+
+    /**
+     * Runs {@code save} (the click that submits the transition) and waits until one of the signals
+     * decides whether loanAppID moved to expectedStatus. {@code status} is the review status observed
+     * in the DB when the outcome was decided there, otherwise null.
+     */
+    public static TransitionOutcome await(Page page, String environment, String loanAppID, String expectedStatus,
+                                          Runnable save, Duration timeout) {
+        Locator errorBanner = newBanner(page);
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        String saveUrlPattern = ConfigManager.getOpsflowSaveUrlPattern();
+        // Listeners run on the page's thread; requests are only collected once the Save is being issued
+        Set<Request> saveRequests = new HashSet<>();
+        AtomicReference<Response> saveResponse = new AtomicReference<>();
+        AtomicReference<Response> otherPostResponse = new AtomicReference<>();
+        Consumer<Request> requestListener = request -> {
+            if ("POST".equals(request.method())) {
+                saveRequests.add(request);
+            }
+        };
+        Consumer<Response> listener = response -> {
+            if (saveRequests.contains(response.request())) {
+                (response.url().contains(saveUrlPattern) ? saveResponse : otherPostResponse).compareAndSet(null, response);
+            }
+        };
+        CompletableFuture<String> statusChange = watchStatus(environment, loanAppID, expectedStatus, timeout);
+        int pollMs = ConfigManager.getOpsflowOutcomePollMs();
+
+        page.onRequest(requestListener);
+        page.onResponse(listener);
+        try {
+            save.run();
+            while (true) {
+                if (statusChange.isDone()) {
+                    return fromStatusChange(statusChange, expectedStatus, start);
+                }
+                // Until the Save endpoint is confirmed, any POST the Save issued stands in when none matches the pattern
+                Response response = saveResponse.get() != null ? saveResponse.get() : otherPostResponse.get();
+                if (response != null && response.status() >= 400) {
+                    return new TransitionOutcome(Kind.SAVE_FAILED, null,
+                            "HTTP " + response.status() + " from " + response.url(), elapsedMs(start));
+                }
+                long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMs <= 0) {
+                    return new TransitionOutcome(Kind.TIMED_OUT, null, "No outcome within " + timeout.toMillis()
+                            + " ms", elapsedMs(start));
+                }
+                try {
+                    errorBanner.waitFor(new Locator.WaitForOptions().setState(WaitForSelectorState.VISIBLE)
+                            .setTimeout(Math.min(pollMs, remainingMs)));
+                    return new TransitionOutcome(Kind.ERROR_BANNER, null, errorBanner.innerText(), elapsedMs(start));
+                } catch (TimeoutError e) {
+                    // Nothing on the page yet; check the DB and the response again
+                }
+            }
+        } finally {
+            page.offRequest(requestListener);
+            page.offResponse(listener);
+            statusChange.cancel(false);
+        }
+    }
+
+    // Locator for the banner this Save may raise: "Failed to move" banners already on the page are stale, so
+    // only one after them counts
+    private static Locator newBanner(Page page) {
+        Locator banners = page.locator(ERROR_BANNER_SELECTOR).filter(new Locator.FilterOptions().setHasText(FAILED_TO_MOVE));
+        return banners.nth(banners.count());
+    }
+
+    /**
+     * Browser-free variant for moves made over HTTP: {@code save} returns the HTTP status of the call that
+     * submitted the transition. A 4xx/5xx decides SAVE_FAILED straight away; otherwise the DB decides,
+     * with the same CONFIRMED / TERMINAL_STATUS / TIMED_OUT semantics as the page race.
+     */
+    public static TransitionOutcome await(String environment, String loanAppID, String expectedStatus,
+                                          Callable<Integer> save, Duration timeout) {
+        long start = System.nanoTime();
+        CompletableFuture<String> statusChange = watchStatus(environment, loanAppID, expectedStatus, timeout);
+        try {
+            int httpStatus = save.call();
+            if (httpStatus >= 400) {
+                return new TransitionOutcome(Kind.SAVE_FAILED, null, "HTTP " + httpStatus, elapsedMs(start));
+            }
+            statusChange.handle((status, error) -> null).join();
+            return fromStatusChange(statusChange, expectedStatus, start);
+        } catch (Exception e) {
+            return new TransitionOutcome(Kind.SAVE_FAILED, null, e.getMessage(), elapsedMs(start));
+        } finally {
+            statusChange.cancel(false);
+        }
+    }
+
+    private static CompletableFuture<String> watchStatus(String environment, String loanAppID, String expectedStatus,
+                                                         Duration timeout) {
+        Set<String> watched = new HashSet<>(TERMINAL_STATUSES);
+        watched.add(expectedStatus);
+        return StatusWatcher.getInstance().watch(environment, DBFactory.CONNECTION_NAMES.LENDING, "loan_application",
+                "id", loanAppID, "user_data_review_status", watched, timeout);
+    }
+
+    private static TransitionOutcome fromStatusChange(CompletableFuture<String> statusChange, String expectedStatus,
+                                                      long start) {
+        if (statusChange.state() == Future.State.SUCCESS) {
+            String status = statusChange.resultNow();
+            Kind kind = TERMINAL_STATUSES.contains(status) && !status.equals(expectedStatus)
+                    ? Kind.TERMINAL_STATUS : Kind.CONFIRMED;
+            return new TransitionOutcome(kind, status, null, elapsedMs(start));
+        }
+        Throwable cause = statusChange.exceptionNow();
+        if (cause instanceof StatusWatcher.WatchTimeoutException timeout) {
+            return new TransitionOutcome(Kind.TIMED_OUT, timeout.getLastObserved(), timeout.getMessage(),
+                    elapsedMs(start));
+        }
+        return new TransitionOutcome(Kind.TIMED_OUT, null, "Error while waiting for status update: "
+                + cause.getMessage(), elapsedMs(start));
+    }
+
+    private static long elapsedMs(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+}
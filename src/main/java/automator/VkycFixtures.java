@@ -0,0 +1,172 @@
+package automator;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Bulk vkyc_info fixtures: ages the date_created / date_modified of a whole cohort so the VKYC calling
+ * crons pick it up, then reads the cohort back and reports an outcome per loan application.
+ * <p>
+ * Updates are sent as JDBC batches of fixture.batch_size rows, one transaction per batch; with
+ * rewriteBatchedStatements (see {@link ConnectionPool}) Connector/J sends each batch in one round-trip
+ * instead of one per row. The read-back is a single bounded IN-list query per lookup.batch_size ids.
+ */
+public final class VkycFixtures {
+
+    // Which vkyc_info timestamp a campaign looks at, and the statement that sets it
+    public enum AgedColumn {
+        DATE_CREATED(Queries.UPDATE_VKYC_INFO_QUERY),
+        DATE_MODIFIED(Queries.UPDATE_VKYC_INFO_RETRYQUERY);
+
+        private final String updateQuery;
+
+        AgedColumn(String updateQuery) {
+            this.updateQuery = updateQuery;
+        }
+
+        public String column() {
+            return name().toLowerCase();
+        }
+
+        LocalDateTime of(VkycInfo info) {
+            return this == DATE_CREATED ? info.dateCreated() : info.dateModified();
+        }
+    }
+
+    // One vkyc_info row as the validation step reads it
+    public record VkycInfo(String status, String provider, String flowType, int attempts,
+                           LocalDateTime dateCreated, LocalDateTime dateModified) {
+    }
+
+    public enum Outcome {
+        ELIGIBLE,   // aged and passes the campaign's checks
+        INELIGIBLE, // aged, but status / provider / flow_type / attempts do not qualify
+        NOT_AGED,   // the update ran but the timestamp read back differs (or it matched no row)
+        MISSING,    // no vkyc_info row for the loan application
+        FAILED      // the update itself failed
+    }
+
+    public record Row(String loanAppID, Outcome outcome, VkycInfo info, String detail) {
+    }
+
+    private VkycFixtures() {}
+
+    /**
+     * Sets {@code column} to {@code timestamp} (truncated to seconds) for every loan application, then
+     * checks each row against {@code eligibility}. Rows come back in the order of {@code loanAppIDs}.
+     */
+    public static List<Row> age(Connection conn, AgedColumn column, LocalDateTime timestamp,
+                                Collection<String> loanAppIDs, Predicate<VkycInfo> eligibility) throws SQLException {
+        LocalDateTime aged = timestamp.truncatedTo(ChronoUnit.SECONDS);
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(loanAppIDs));
+        Map<String, String> failures = update(conn, column, aged, ids);
+        Map<String, VkycInfo> infos = fetch(conn, ids);
+
+        List<Row> rows = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            VkycInfo info = infos.get(id);
+            if (failures.containsKey(id)) {
+                rows.add(new Row(id, Outcome.FAILED, info, failures.get(id)));
+            } else if (info == null) {
+                rows.add(new Row(id, Outcome.MISSING, null, "no vkyc_info row"));
+            } else if (!aged.equals(column.of(info))) {
+                rows.add(new Row(id, Outcome.NOT_AGED, info, column.column() + "=" + column.of(info)));
+            } else if (!eligibility.test(info)) {
+                rows.add(new Row(id, Outcome.INELIGIBLE, info, null));
+            } else {
+                rows.add(new Row(id, Outcome.ELIGIBLE, info, null));
+            }
+        }
+        return rows;
+    }
+
+    // vkyc_info rows by unique_id_ref; ids without a row are absent from the map
+    public static Map<String, VkycInfo> fetch(Connection conn, Collection<String> loanAppIDs) throws SQLException {
+        Map<String, VkycInfo> infos = new HashMap<>((int) (loanAppIDs.size() / 0.75f) + 1);
+        if (loanAppIDs.isEmpty()) {
+            return infos;
+        }
+        int batchSize = Math.min(ConfigManager.getLookupBatchSize(), InClause.MAX_SIZE);
+        for (List<String> ids : InClause.partition(new LinkedHashSet<>(loanAppIDs), batchSize)) {
+            int bucket = InClause.bucketSize(ids.size(), batchSize);
+            String sql = Queries.BULK_VKYC_INFO_QUERY_PREFIX + InClause.placeholders(bucket) + ")";
+            try (PreparedStatement stmt = StatementCache.prepare(conn, sql)) {
+                InClause.bind(stmt, 1, ids, bucket);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        infos.put(rs.getString("unique_id_ref"), new VkycInfo(rs.getString("status"),
+                                rs.getString("provider"), rs.getString("flow_type"), rs.getInt("attempts"),
+                                toLocalDateTime(rs.getTimestamp("date_created")),
+                                toLocalDateTime(rs.getTimestamp("date_modified"))));
+                    }
+                }
+            }
+        }
+        return infos;
+    }
+
+    public static void logSummary(String label, List<Row> rows) {
+        Map<Outcome, Integer> counts = new EnumMap<>(Outcome.class);
+        for (Row row : rows) {
+            counts.merge(row.outcome(), 1, Integer::sum);
+        }
+        StringBuilder report = new StringBuilder(label + ": " + rows.size() + " vkyc_info rows " + counts);
+        for (Row row : rows) {
+            if (row.outcome() != Outcome.ELIGIBLE) {
+                report.append(System.lineSeparator()).append(String.format("  %-34s %-10s %s", row.loanAppID(),
+                        row.outcome(), row.detail() != null ? row.detail() : String.valueOf(row.info())));
+            }
+        }
+        Logger.logInfo(report.toString());
+    }
+
+    // Batched updates; returns the ids whose update failed, with the reason
+    private static Map<String, String> update(Connection conn, AgedColumn column, LocalDateTime aged, List<String> ids)
+            throws SQLException {
+        Map<String, String> failures = new HashMap<>();
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (PreparedStatement stmt = StatementCache.prepare(conn, column.updateQuery)) {
+            for (List<String> batch : InClause.partition(ids, Math.max(1, ConfigManager.getFixtureBatchSize()))) {
+                for (String id : batch) {
+                    stmt.setTimestamp(1, Timestamp.valueOf(aged));
+                    stmt.setString(2, id);
+                    stmt.addBatch();
+                }
+                try {
+                    stmt.executeBatch();
+                } catch (BatchUpdateException e) {
+                    // The driver stops at the first failing row; everything after it was not attempted
+                    int[] counts = e.getUpdateCounts();
+                    for (int i = 0; i < batch.size(); i++) {
+                        if (i >= counts.length || counts[i] == Statement.EXECUTE_FAILED) {
+                            failures.put(batch.get(i), e.getMessage());
+                        }
+                    }
+                    stmt.clearBatch();
+                }
+                // Rows that were applied are kept; the read-back decides what each one ended up as
+                conn.commit();
+            }
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        return failures;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
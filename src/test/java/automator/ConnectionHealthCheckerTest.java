@@ -0,0 +1,76 @@
+package automator;
+
+import org.testng.annotations.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class ConnectionHealthCheckerTest {
+
+    // A handle whose every borrow fails with the given error, counting reconnect attempts
+    private static final class FailingDataBase extends DataBase {
+        private final String poolName;
+        private final SQLException error;
+        private int reconnects;
+
+        private FailingDataBase(String poolName, SQLException error) {
+            super(DBFactory.CONNECTION_NAMES.LENDING);
+            this.poolName = poolName;
+            this.error = error;
+        }
+
+        @Override
+        protected String getPoolName() {
+            return poolName;
+        }
+
+        @Override
+        public void setConnection(String databaseUrl, String user, String password) {
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            throw error;
+        }
+
+        @Override
+        public synchronized void reconnect() {
+            reconnects++;
+        }
+    }
+
+    @Test
+    public void exhaustedPoolIsNotReconnected() {
+        FailingDataBase database = new FailingDataBase("test-busy", new SQLTransientConnectionException(
+                "test-busy - Connection is not available, request timed out after 1000ms."));
+        assertTrue(ConnectionHealthChecker.check(database));
+        assertEquals(database.reconnects, 0);
+        assertEquals(ConnectionHealthChecker.getReconnectCount(database), 0L);
+        assertTrue(ConnectionHealthChecker.describe().contains("test-busy[checks=1, failures=0, busy=1"),
+                ConnectionHealthChecker.describe());
+    }
+
+    @Test
+    public void poolThatCannotConnectIsReconnected() {
+        SQLException refused = new SQLNonTransientConnectionException("Connection refused");
+        FailingDataBase database = new FailingDataBase("test-down", new SQLTransientConnectionException(
+                "test-down - Connection is not available, request timed out after 1000ms.", "08S01", refused));
+        assertFalse(ConnectionHealthChecker.check(database));
+        assertEquals(database.reconnects, 1);
+        assertEquals(ConnectionHealthChecker.getReconnectCount(database), 1L);
+    }
+
+    @Test
+    public void onlyCauselessBorrowTimeoutsCountAsExhaustion() {
+        assertTrue(ConnectionHealthChecker.isPoolExhausted(new SQLTransientConnectionException("timed out")));
+        assertFalse(ConnectionHealthChecker.isPoolExhausted(
+                new SQLTransientConnectionException("timed out", "08S01", new SQLException("refused"))));
+        assertFalse(ConnectionHealthChecker.isPoolExhausted(new SQLException("Communications link failure")));
+    }
+}
@@ -0,0 +1,80 @@
+package automator;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory JDBC proxies for the unit tests: statements remember what was bound to them, and a
+ * connection answers each query with the rows registered for the longest matching SQL prefix.
+ */
+final class FakeJdbc {
+
+    private FakeJdbc() {}
+
+    // Parameters bound through setString / setInt, by index
+    static final class Bindings {
+        final Map<Integer, Object> values = new LinkedHashMap<>();
+    }
+
+    static PreparedStatement statement(Bindings bindings, List<Object[]> rows) {
+        return (PreparedStatement) Proxy.newProxyInstance(FakeJdbc.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "setString", "setInt", "setTimestamp" -> {
+                        bindings.values.put((Integer) args[0], args[1]);
+                        yield null;
+                    }
+                    case "executeQuery" -> resultSet(rows);
+                    default -> defaultValue(method.getReturnType());
+                });
+    }
+
+    // rowsBySqlPrefix: e.g. Queries.STATUS_ROWS_QUERY_PREFIX -> [{"id-1", "PENDING_REVIEW"}, ...]
+    static Connection connection(Map<String, List<Object[]>> rowsBySqlPrefix) {
+        return (Connection) Proxy.newProxyInstance(FakeJdbc.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("prepareStatement")) {
+                        String sql = (String) args[0];
+                        String match = null;
+                        for (String prefix : rowsBySqlPrefix.keySet()) {
+                            if (sql.startsWith(prefix) && (match == null || prefix.length() > match.length())) {
+                                match = prefix;
+                            }
+                        }
+                        return statement(new Bindings(), match == null ? List.of() : rowsBySqlPrefix.get(match));
+                    }
+                    return defaultValue(method.getReturnType());
+                });
+    }
+
+    private static ResultSet resultSet(List<Object[]> rows) {
+        Iterator<Object[]> iterator = new ArrayList<>(rows).iterator();
+        Object[][] current = new Object[1][];
+        return (ResultSet) Proxy.newProxyInstance(FakeJdbc.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "next" -> {
+                        current[0] = iterator.hasNext() ? iterator.next() : null;
+                        yield current[0] != null;
+                    }
+                    case "getString" -> String.valueOf(current[0][(Integer) args[0] - 1]);
+                    case "getInt" -> ((Number) current[0][(Integer) args[0] - 1]).intValue();
+                    default -> defaultValue(method.getReturnType());
+                });
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class || type == long.class) {
+            return type == int.class ? (Object) 0 : (Object) 0L;
+        }
+        return null;
+    }
+}
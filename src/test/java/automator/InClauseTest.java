@@ -0,0 +1,48 @@
+package automator;
+
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+
+public class InClauseTest {
+
+    @Test
+    public void bucketSizeRoundsUpToAPowerOfTwo() {
+        assertEquals(InClause.bucketSize(0, 512), 1);
+        assertEquals(InClause.bucketSize(1, 512), 1);
+        assertEquals(InClause.bucketSize(3, 512), 4);
+        assertEquals(InClause.bucketSize(4, 512), 4);
+        assertEquals(InClause.bucketSize(5, 512), 8);
+        assertEquals(InClause.bucketSize(257, 512), 512);
+    }
+
+    @Test
+    public void bucketSizeIsCappedAtMaxSize() {
+        assertEquals(InClause.bucketSize(600, 512), 512);
+        assertEquals(InClause.bucketSize(90, 100), 100);
+    }
+
+    @Test
+    public void partitionKeepsOrderAndBoundsChunks() {
+        List<List<String>> chunks = InClause.partition(List.of("a", "b", "c", "d", "e"), 2);
+        assertEquals(chunks, List.of(List.of("a", "b"), List.of("c", "d"), List.of("e")));
+        assertEquals(InClause.partition(List.of(), 2), List.of());
+    }
+
+    @Test
+    public void placeholdersMatchTheCount() {
+        assertEquals(InClause.placeholders(1), "?");
+        assertEquals(InClause.placeholders(3), "?, ?, ?");
+    }
+
+    @Test
+    public void bindPadsWithTheLastValue() throws Exception {
+        FakeJdbc.Bindings bindings = new FakeJdbc.Bindings();
+        int next = InClause.bind(FakeJdbc.statement(bindings, List.of()), 2, List.of("a", "b", "c"), 4);
+        assertEquals(next, 6);
+        assertEquals(List.copyOf(bindings.values.keySet()), List.of(2, 3, 4, 5));
+        assertEquals(List.copyOf(bindings.values.values()), List.of("a", "b", "c", "c"));
+    }
+}
@@ -0,0 +1,55 @@
+package automator;
+
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(histogram.getCount(), 0L);
+        assertEquals(histogram.percentileMillis(0.5), 0.0);
+        assertEquals(histogram.getMeanMillis(), 0.0);
+    }
+
+    // A percentile is the upper bound of its bucket: never below the true value and less than twice it
+    @Test
+    public void percentileIsWithinOneBucketOfTheValue() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) {
+            histogram.recordNanos(TimeUnit.MICROSECONDS.toNanos(1_500));
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.recordNanos(TimeUnit.MICROSECONDS.toNanos(40_000));
+        }
+        double p50 = histogram.percentileMillis(0.50);
+        assertTrue(p50 >= 1.5 && p50 < 3.0, "p50=" + p50);
+        double p95 = histogram.percentileMillis(0.95);
+        assertTrue(p95 >= 1.5 && p95 <= 40.0, "p95=" + p95);
+    }
+
+    @Test
+    public void percentileNeverExceedsTheMaximum() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordNanos(TimeUnit.MICROSECONDS.toNanos(1_100));
+        histogram.recordNanos(TimeUnit.MICROSECONDS.toNanos(1_200));
+        assertEquals(histogram.getMaxMillis(), 1.2);
+        assertEquals(histogram.percentileMillis(0.99), 1.2);
+        assertEquals(histogram.percentileMillis(1.0), 1.2);
+    }
+
+    @Test
+    public void subMicrosecondAndNegativeSamplesLandInTheFirstBucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordNanos(500);
+        histogram.recordNanos(-1);
+        assertEquals(histogram.getCount(), 2L);
+        assertEquals(histogram.percentileMillis(0.99), 0.0);
+        assertEquals(histogram.getMeanMillis(), 0.0);
+    }
+}
@@ -0,0 +1,137 @@
+package automator;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+public class MetadataStoreTest {
+    private static final long HOUR_MS = 60 * 60 * 1000;
+
+    @AfterClass
+    public void restoreStore() {
+        ConfigManager.setProperty("metadata_store.compact_threshold", null);
+        MetadataStore.use(Paths.get(ConfigManager.getMetadataStorePath()),
+                ConfigManager.getMetadataStoreTtlHours() * HOUR_MS);
+    }
+
+    @Test
+    public void entriesAreKeptPerEnvironment() throws Exception {
+        MetadataStore.use(tempLog(), HOUR_MS);
+        MetadataStore.put("ops-01", "loan_application_no", "app-1", "LA-1");
+        MetadataStore.put("ops-03", "loan_application_no", "app-1", "LA-3");
+        assertEquals(MetadataStore.get("ops-01", "loan_application_no", "app-1"), "LA-1");
+        assertEquals(MetadataStore.get("ops-03", "loan_application_no", "app-1"), "LA-3");
+        assertNull(MetadataStore.get("ops-05", "loan_application_no", "app-1"));
+    }
+
+    @Test
+    public void expiredEntriesAreIgnoredOnLoad() throws Exception {
+        Path log = tempLog();
+        long now = System.currentTimeMillis();
+        Files.write(log, List.of(
+                (now - 2 * HOUR_MS) + "\tops-01\tns\told\tstale",
+                now + "\tops-01\tns\tnew\tfresh"), StandardCharsets.UTF_8);
+        MetadataStore.use(log, HOUR_MS);
+        assertNull(MetadataStore.get("ops-01", "ns", "old"));
+        assertEquals(MetadataStore.get("ops-01", "ns", "new"), "fresh");
+        assertEquals(MetadataStore.getDeadLineCount(), 1);
+    }
+
+    @Test
+    public void malformedLinesAreSkippedOnLoad() throws Exception {
+        Path log = tempLog();
+        long now = System.currentTimeMillis();
+        Files.write(log, List.of(
+                now + "\tops-01\tns\tfirst\tone",
+                "not-a-timestamp\tops-01\tns\tbad\tx",
+                now + "\tops-01\tns",
+                now + "\tops-01\tns\tsecond\ttwo"), StandardCharsets.UTF_8);
+        MetadataStore.use(log, HOUR_MS);
+        assertEquals(MetadataStore.get("ops-01", "ns", "first"), "one");
+        assertEquals(MetadataStore.get("ops-01", "ns", "second"), "two");
+        assertNull(MetadataStore.get("ops-01", "ns", "bad"));
+        assertEquals(MetadataStore.getDeadLineCount(), 2);
+    }
+
+    @Test
+    public void entriesSurviveAReload() throws Exception {
+        Path log = tempLog();
+        MetadataStore.use(log, HOUR_MS);
+        MetadataStore.put("ops-01", "ns", "key", "value");
+        MetadataStore.use(log, HOUR_MS);
+        assertEquals(MetadataStore.get("ops-01", "ns", "key"), "value");
+    }
+
+    @Test
+    public void overwritesCompactTheLogPastTheThreshold() throws Exception {
+        ConfigManager.setProperty("metadata_store.compact_threshold", "3");
+        try {
+            Path log = tempLog();
+            MetadataStore.use(log, HOUR_MS);
+            for (int i = 0; i < 4; i++) {
+                MetadataStore.put("ops-01", "ns", "key", "v" + i);
+            }
+            assertEquals(Files.readAllLines(log).size(), 4);
+            assertEquals(MetadataStore.getDeadLineCount(), 3);
+
+            // The fourth overwrite crosses the threshold and leaves only the live entry
+            MetadataStore.put("ops-01", "ns", "key", "v4");
+            assertEquals(Files.readAllLines(log).size(), 1);
+            assertEquals(MetadataStore.getDeadLineCount(), 0);
+            // The rewrite leaves no temp file behind
+            try (Stream<Path> files = Files.list(log.getParent())) {
+                assertEquals(files.count(), 1L);
+            }
+            MetadataStore.use(log, HOUR_MS);
+            assertEquals(MetadataStore.get("ops-01", "ns", "key"), "v4");
+        } finally {
+            ConfigManager.setProperty("metadata_store.compact_threshold", null);
+        }
+    }
+
+    @Test
+    public void loadCompactsALogWithTooManyDeadLines() throws Exception {
+        ConfigManager.setProperty("metadata_store.compact_threshold", "2");
+        try {
+            Path log = tempLog();
+            long now = System.currentTimeMillis();
+            Files.write(log, List.of(
+                    now + "\tops-01\tns\tkey\tv1",
+                    now + "\tops-01\tns\tkey\tv2",
+                    (now - 2 * HOUR_MS) + "\tops-01\tns\texpired\tx",
+                    now + "\tops-01\tns\tkey\tv3"), StandardCharsets.UTF_8);
+            MetadataStore.use(log, HOUR_MS);
+            assertEquals(MetadataStore.get("ops-01", "ns", "key"), "v3");
+            assertEquals(Files.readAllLines(log).size(), 1);
+        } finally {
+            ConfigManager.setProperty("metadata_store.compact_threshold", null);
+        }
+    }
+
+    @Test
+    public void purgingAnEnvironmentKeepsTheOthers() throws Exception {
+        Path log = tempLog();
+        MetadataStore.use(log, HOUR_MS);
+        MetadataStore.put("ops-01", "ns", "key", "one");
+        MetadataStore.put("ops-03", "ns", "key", "three");
+        MetadataStore.purge("ops-01");
+        MetadataStore.use(log, HOUR_MS);
+        assertNull(MetadataStore.get("ops-01", "ns", "key"));
+        assertEquals(MetadataStore.get("ops-03", "ns", "key"), "three");
+    }
+
+    private static Path tempLog() throws Exception {
+        Path dir = Files.createTempDirectory("metadata-store-test");
+        dir.toFile().deleteOnExit();
+        return dir.resolve("metadata.tsv");
+    }
+}
@@ -0,0 +1,137 @@
+package automator;
+
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class PollerTest {
+
+    @Test
+    public void firstPollIsImmediate() throws Exception {
+        long start = System.nanoTime();
+        String result = Poller.builder("test.immediate", Duration.ofSeconds(5))
+                .initialInterval(Duration.ofSeconds(10)).build()
+                .await(() -> "ready");
+        assertEquals(result, "ready");
+        assertTrue(elapsedMs(start) < 1_000, "took " + elapsedMs(start) + " ms");
+    }
+
+    // The second wait would be 10 s, but it is cut to what is left of the 300 ms deadline
+    @Test
+    public void waitIsClampedToTheDeadline() throws Exception {
+        AtomicInteger polls = new AtomicInteger();
+        long start = System.nanoTime();
+        try {
+            Poller.builder("test.deadline", Duration.ofMillis(300))
+                    .initialInterval(Duration.ofSeconds(10)).jitter(0).build()
+                    .await(() -> {
+                        polls.incrementAndGet();
+                        return null;
+                    });
+            fail("expected a PollTimeoutException");
+        } catch (Poller.PollTimeoutException e) {
+            assertNull(e.getLastError());
+            assertTrue(e.getMessage().contains("after 2 polls"), e.getMessage());
+        }
+        assertEquals(polls.get(), 2);
+        long elapsed = elapsedMs(start);
+        assertTrue(elapsed >= 250 && elapsed < 5_000, "took " + elapsed + " ms");
+    }
+
+    // A multiplier below 1 is raised to 1 and a max interval below the initial one is raised to it
+    @Test
+    public void intervalsNeverShrink() throws Exception {
+        List<Long> pollTimes = new CopyOnWriteArrayList<>();
+        Poller.builder("test.clamped", Duration.ofSeconds(10))
+                .initialInterval(Duration.ofMillis(100)).maxInterval(Duration.ofMillis(10))
+                .multiplier(0.1).jitter(0).build()
+                .await(() -> {
+                    pollTimes.add(System.nanoTime());
+                    return pollTimes.size() == 4 ? "done" : null;
+                });
+        assertEquals(pollTimes.size(), 4);
+        for (int i = 1; i < pollTimes.size(); i++) {
+            long gapMs = TimeUnit.NANOSECONDS.toMillis(pollTimes.get(i) - pollTimes.get(i - 1));
+            assertTrue(gapMs >= 90, "poll " + i + " came after " + gapMs + " ms");
+        }
+    }
+
+    @Test
+    public void intervalGrowsUpToTheMaximum() throws Exception {
+        List<Long> pollTimes = new CopyOnWriteArrayList<>();
+        Poller.builder("test.backoff", Duration.ofSeconds(10))
+                .initialInterval(Duration.ofMillis(50)).maxInterval(Duration.ofMillis(200))
+                .multiplier(2).jitter(0).build()
+                .await(() -> {
+                    pollTimes.add(System.nanoTime());
+                    return pollTimes.size() == 5 ? "done" : null;
+                });
+        // Waits of 50, 100, 200 and 200 ms: the last one is capped rather than 400 ms
+        long lastGapMs = TimeUnit.NANOSECONDS.toMillis(pollTimes.get(4) - pollTimes.get(3));
+        long secondGapMs = TimeUnit.NANOSECONDS.toMillis(pollTimes.get(2) - pollTimes.get(1));
+        assertTrue(secondGapMs >= 90, "second wait was " + secondGapMs + " ms");
+        assertTrue(lastGapMs >= 190 && lastGapMs < 390, "last wait was " + lastGapMs + " ms");
+    }
+
+    @Test
+    public void probeErrorsCountAsEmptyPolls() throws Exception {
+        AtomicInteger polls = new AtomicInteger();
+        String result = Poller.builder("test.errors", Duration.ofSeconds(5))
+                .initialInterval(Duration.ofMillis(10)).build()
+                .await(() -> {
+                    if (polls.incrementAndGet() < 3) {
+                        throw new IllegalStateException("not yet");
+                    }
+                    return "recovered";
+                });
+        assertEquals(result, "recovered");
+        assertEquals(polls.get(), 3);
+    }
+
+    @Test
+    public void timeoutCarriesTheLastProbeError() throws Exception {
+        try {
+            Poller.builder("test.last_error", Duration.ofMillis(100))
+                    .initialInterval(Duration.ofMillis(20)).build()
+                    .await(() -> {
+                        throw new IllegalStateException("table missing");
+                    });
+            fail("expected a PollTimeoutException");
+        } catch (Poller.PollTimeoutException e) {
+            assertEquals(e.getLastError().getMessage(), "table missing");
+            assertTrue(e.getMessage().contains("table missing"), e.getMessage());
+        }
+    }
+
+    @Test
+    public void cancellingStopsPolling() throws Exception {
+        AtomicInteger polls = new AtomicInteger();
+        CompletableFuture<String> future = Poller.builder("test.cancel", Duration.ofSeconds(10))
+                .initialInterval(Duration.ofMillis(20)).maxInterval(Duration.ofMillis(20)).jitter(0).build()
+                .start(() -> {
+                    polls.incrementAndGet();
+                    return null;
+                });
+        Thread.sleep(100);
+        future.cancel(false);
+        Thread.sleep(50);
+        int afterCancel = polls.get();
+        Thread.sleep(150);
+        assertEquals(polls.get(), afterCancel);
+        assertTrue(future.isCancelled());
+    }
+
+    private static long elapsedMs(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,123 @@
+package automator;
+
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class ReviewStateMachineTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    // DOCS_UPLOADED -> FRAUD_REVIEW directly as a DB fixture, or in two API moves via PENDING_REVIEW
+    private static ReviewStateMachine shortcutMachine() {
+        return ReviewStateMachine.builder()
+                .edge(ReviewStatus.DOCS_UPLOADED, ReviewStatus.PENDING_REVIEW, ReviewStateMachine.Mode.API, TIMEOUT)
+                .edge(ReviewStatus.PENDING_REVIEW, ReviewStatus.FRAUD_REVIEW, ReviewStateMachine.Mode.API, TIMEOUT)
+                .edge(ReviewStatus.DOCS_UPLOADED, ReviewStatus.FRAUD_REVIEW, ReviewStateMachine.Mode.DB, TIMEOUT)
+                .build();
+    }
+
+    @Test
+    public void standardPlanWalksTheWholeReviewFlow() {
+        List<ReviewStateMachine.Edge> path = ReviewStateMachine.standard()
+                .plan(ReviewStatus.DOCS_UPLOADED, ReviewStatus.LOAN_APPROVED);
+        assertEquals(path.size(), 6);
+        assertEquals(path.get(0).from(), ReviewStatus.DOCS_UPLOADED);
+        assertEquals(path.get(5).to(), ReviewStatus.LOAN_APPROVED);
+    }
+
+    @Test
+    public void planToTheSameStatusIsEmptyAndUnreachableIsNull() {
+        ReviewStateMachine machine = shortcutMachine();
+        assertEquals(machine.plan(ReviewStatus.PENDING_REVIEW, ReviewStatus.PENDING_REVIEW), List.of());
+        assertNull(machine.plan(ReviewStatus.FRAUD_REVIEW, ReviewStatus.DOCS_UPLOADED));
+        assertEquals(machine.describePlan(ReviewStatus.FRAUD_REVIEW, ReviewStatus.DOCS_UPLOADED), "unreachable");
+    }
+
+    @Test
+    public void cheapestModeWins() {
+        List<ReviewStateMachine.Edge> path = shortcutMachine().plan(ReviewStatus.DOCS_UPLOADED, ReviewStatus.FRAUD_REVIEW);
+        assertEquals(path.size(), 1);
+        assertEquals(path.get(0).mode(), ReviewStateMachine.Mode.DB);
+    }
+
+    @Test
+    public void planOnlyUsesTheGivenModes() {
+        ReviewStateMachine machine = shortcutMachine();
+        List<ReviewStateMachine.Edge> path = machine.plan(ReviewStatus.DOCS_UPLOADED, ReviewStatus.FRAUD_REVIEW,
+                EnumSet.of(ReviewStateMachine.Mode.API, ReviewStateMachine.Mode.UI));
+        assertEquals(path.size(), 2);
+        assertEquals(machine.describePlan(ReviewStatus.DOCS_UPLOADED, ReviewStatus.FRAUD_REVIEW,
+                EnumSet.of(ReviewStateMachine.Mode.API)), "DOCS_UPLOADED -> PENDING_REVIEW -> FRAUD_REVIEW");
+        assertNull(machine.plan(ReviewStatus.DOCS_UPLOADED, ReviewStatus.FRAUD_REVIEW,
+                EnumSet.of(ReviewStateMachine.Mode.CONSOLE)));
+    }
+
+    // Paths are cached per mode set, so planning with fewer modes never changes the plan for more
+    @Test
+    public void plansAreCachedPerModeSet() {
+        ReviewStateMachine machine = shortcutMachine();
+        Set<ReviewStateMachine.Mode> withDb = EnumSet.of(ReviewStateMachine.Mode.API, ReviewStateMachine.Mode.DB);
+        assertEquals(machine.plan(ReviewStatus.DOCS_UPLOADED, ReviewStatus.FRAUD_REVIEW, withDb).size(), 1);
+        assertEquals(machine.plan(ReviewStatus.DOCS_UPLOADED, ReviewStatus.FRAUD_REVIEW,
+                EnumSet.of(ReviewStateMachine.Mode.API)).size(), 2);
+        assertEquals(machine.plan(ReviewStatus.DOCS_UPLOADED, ReviewStatus.FRAUD_REVIEW, Set.copyOf(withDb)).size(), 1);
+        assertNull(machine.plan(ReviewStatus.DOCS_UPLOADED, ReviewStatus.FRAUD_REVIEW, Set.of()));
+    }
+
+    @Test
+    public void configOverridesModeAndTimeout() {
+        String prefix = "opsflow.edge.DOCS_UPLOADED.FRAUD_REVIEW.";
+        ConfigManager.setProperty(prefix + "mode", "ui");
+        ConfigManager.setProperty(prefix + "timeout_ms", "1234");
+        try {
+            ReviewStateMachine machine = shortcutMachine();
+            ReviewStateMachine.Edge shortcut = machine.getEdges(ReviewStatus.DOCS_UPLOADED).stream()
+                    .filter(edge -> edge.to() == ReviewStatus.FRAUD_REVIEW).findFirst().orElseThrow();
+            assertEquals(shortcut.mode(), ReviewStateMachine.Mode.UI);
+            assertEquals(shortcut.timeout(), Duration.ofMillis(1234));
+            // A UI move (10) now costs more than the two API moves (2 + 2)
+            List<ReviewStateMachine.Edge> path = machine.plan(ReviewStatus.DOCS_UPLOADED, ReviewStatus.FRAUD_REVIEW);
+            assertEquals(path.size(), 2);
+            assertEquals(path.get(0).mode(), ReviewStateMachine.Mode.API);
+        } finally {
+            ConfigManager.setProperty(prefix + "mode", null);
+            ConfigManager.setProperty(prefix + "timeout_ms", null);
+        }
+    }
+
+    @Test
+    public void driveSkipsEdgesWithoutAHandler() throws Exception {
+        List<ReviewStateMachine.Edge> made = new ArrayList<>();
+        ReviewStateMachine.EdgeHandler api = (loanAppID, edge) -> {
+            made.add(edge);
+            return new TransitionOutcome(TransitionOutcome.Kind.CONFIRMED, edge.to().name(), null, 0);
+        };
+        TransitionOutcome outcome = shortcutMachine().drive("app-1", ReviewStatus.DOCS_UPLOADED,
+                ReviewStatus.FRAUD_REVIEW, Map.of(ReviewStateMachine.Mode.API, api));
+        assertTrue(outcome.isConfirmed());
+        assertEquals(outcome.status(), "FRAUD_REVIEW");
+        assertEquals(made.size(), 2);
+    }
+
+    @Test
+    public void driveStopsAtTheFirstUnconfirmedMove() throws Exception {
+        List<ReviewStateMachine.Edge> made = new ArrayList<>();
+        ReviewStateMachine.EdgeHandler failing = (loanAppID, edge) -> {
+            made.add(edge);
+            return new TransitionOutcome(TransitionOutcome.Kind.SAVE_FAILED, null, "HTTP 500", 0);
+        };
+        TransitionOutcome outcome = shortcutMachine().drive("app-1", ReviewStatus.DOCS_UPLOADED,
+                ReviewStatus.FRAUD_REVIEW, Map.of(ReviewStateMachine.Mode.API, failing));
+        assertEquals(outcome.kind(), TransitionOutcome.Kind.SAVE_FAILED);
+        assertEquals(made.size(), 1);
+    }
+}
@@ -0,0 +1,51 @@
+package automator;
+
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+
+public class StatementCacheTest {
+
+    // A pooled connection whose driver parks one statement and hands it back on every prepare,
+    // each time behind a fresh pool proxy, as Connector/J does with cachePrepStmts on
+    private static Connection cachingConnection(PreparedStatement driverStatement) {
+        return (Connection) Proxy.newProxyInstance(StatementCacheTest.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> method.getName().equals("prepareStatement")
+                        ? pooled(driverStatement) : null);
+    }
+
+    private static PreparedStatement pooled(PreparedStatement driverStatement) {
+        return (PreparedStatement) Proxy.newProxyInstance(StatementCacheTest.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> method.getName().equals("unwrap")
+                        ? driverStatement : null);
+    }
+
+    @Test
+    public void reusedDriverStatementsCountAsHits() throws Exception {
+        long hits = StatementCache.getHitCount();
+        long misses = StatementCache.getMissCount();
+        Connection conn = cachingConnection(FakeJdbc.statement(new FakeJdbc.Bindings(), List.of()));
+        StatementCache.prepare(conn, "SELECT 1");
+        StatementCache.prepare(conn, "SELECT 1");
+        StatementCache.prepare(conn, "SELECT 1");
+        assertEquals(StatementCache.getMissCount() - misses, 1L);
+        assertEquals(StatementCache.getHitCount() - hits, 2L);
+    }
+
+    @Test
+    public void freshDriverStatementsCountAsMisses() throws Exception {
+        long hits = StatementCache.getHitCount();
+        long misses = StatementCache.getMissCount();
+        Connection conn = FakeJdbc.connection(Map.of());
+        StatementCache.prepare(conn, "SELECT 2");
+        StatementCache.prepare(conn, "SELECT 2");
+        assertEquals(StatementCache.getMissCount() - misses, 2L);
+        assertEquals(StatementCache.getHitCount() - hits, 0L);
+    }
+}
@@ -0,0 +1,84 @@
+package automator;
+
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+
+public class StatusSnapshotTest {
+    private static final Set<ReviewStatus> STATUSES = Set.of(ReviewStatus.PENDING_REVIEW, ReviewStatus.FRAUD_REVIEW);
+
+    private static StatusSnapshot capture(List<Object[]> counts, List<Object[]> rows) throws Exception {
+        Connection conn = FakeJdbc.connection(Map.of(
+                Queries.STATUS_COUNT_QUERY_PREFIX, counts,
+                Queries.STATUS_ROWS_QUERY_PREFIX, rows));
+        return StatusSnapshot.capture(conn, "test-app", STATUSES);
+    }
+
+    @Test
+    public void captureKeepsCountsAndRows() throws Exception {
+        StatusSnapshot snapshot = capture(
+                List.of(new Object[]{"PENDING_REVIEW", 2}, new Object[]{"FRAUD_REVIEW", 1}),
+                List.of(new Object[]{"id-1", "PENDING_REVIEW"}, new Object[]{"id-2", "PENDING_REVIEW"},
+                        new Object[]{"id-3", "FRAUD_REVIEW"}));
+        assertEquals(snapshot.size(), 3);
+        assertFalse(snapshot.isEmpty());
+        assertEquals(snapshot.count(ReviewStatus.PENDING_REVIEW), 2);
+        assertEquals(snapshot.count(ReviewStatus.LOAN_APPROVED), 0);
+        assertEquals(snapshot.statusOf("id-3"), ReviewStatus.FRAUD_REVIEW);
+        assertNull(snapshot.statusOf("id-9"));
+    }
+
+    // Rows added between the count and the row query still fit
+    @Test
+    public void rowArraysGrowPastTheCount() throws Exception {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            rows.add(new Object[]{"id-" + i, "PENDING_REVIEW"});
+        }
+        StatusSnapshot snapshot = capture(List.<Object[]>of(new Object[]{"PENDING_REVIEW", 1}), rows);
+        assertEquals(snapshot.size(), 40);
+        assertEquals(snapshot.statusOf("id-39"), ReviewStatus.PENDING_REVIEW);
+    }
+
+    @Test
+    public void transitionsGroupByThePreviousStatus() throws Exception {
+        StatusSnapshot before = capture(List.of(),
+                List.of(new Object[]{"id-1", "PENDING_REVIEW"}, new Object[]{"id-2", "PENDING_REVIEW"},
+                        new Object[]{"id-3", "FRAUD_REVIEW"}));
+        StatusSnapshot after = capture(List.of(),
+                List.of(new Object[]{"id-1", "FRAUD_REVIEW"}, new Object[]{"id-2", "PENDING_REVIEW"},
+                        new Object[]{"id-4", "PENDING_REVIEW"}));
+        EnumMap<ReviewStatus, List<String>> transitions = before.transitionsTo(after);
+        assertEquals(transitions.get(ReviewStatus.PENDING_REVIEW), List.of("id-1", "id-2"));
+        assertNull(transitions.get(ReviewStatus.FRAUD_REVIEW));
+    }
+
+    @Test
+    public void recaptureOnlyBindsTheSnapshotIdsAndKeepsTheGivenStatuses() throws Exception {
+        StatusSnapshot before = capture(List.of(),
+                List.of(new Object[]{"id-1", "PENDING_REVIEW"}, new Object[]{"id-2", "FRAUD_REVIEW"},
+                        new Object[]{"id-3", "PENDING_REVIEW"}));
+        FakeJdbc.Bindings bindings = new FakeJdbc.Bindings();
+        Connection conn = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> FakeJdbc.statement(bindings,
+                        List.of(new Object[]{"id-1", "SYSTEM_CANCELLED"}, new Object[]{"id-2", "FRAUD_REVIEW"},
+                                new Object[]{"id-3", "SYSTEM_CANCELLED"})));
+        StatusSnapshot after = before.recapture(conn, Set.of(ReviewStatus.SYSTEM_CANCELLED));
+        // Three ids padded to a bucket of four by repeating the last one
+        assertEquals(List.copyOf(bindings.values.values()), List.of("id-1", "id-2", "id-3", "id-3"));
+        assertEquals(after.size(), 2);
+        assertEquals(after.count(ReviewStatus.SYSTEM_CANCELLED), 2);
+        assertNull(after.statusOf("id-2"));
+        assertEquals(before.transitionsTo(after).get(ReviewStatus.PENDING_REVIEW), List.of("id-1", "id-3"));
+    }
+}
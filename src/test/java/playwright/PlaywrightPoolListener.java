@@ -0,0 +1,14 @@
+package playwright;
+
+import automator.PlaywrightPool;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+
+// Registered through META-INF/services so every suite closes the shared Playwright drivers when it ends
+public class PlaywrightPoolListener implements ISuiteListener {
+
+    @Override
+    public void onFinish(ISuite suite) {
+        PlaywrightPool.shutdown();
+    }
+}
@@ -1,132 +1,156 @@
 package playwright.automation;
 
-import java.io.IOException;
-import java.sql.PreparedStatement;
 import java.time.format.DateTimeFormatter;
 import java.time.LocalDateTime;
+import automator.ConfigManager;
+import automator.DBFactory;
 import automator.DatabaseConnection;
+import automator.EnvironmentContext;
+import automator.HttpTransport;
 import automator.Logger;
+import automator.QueryMetrics;
+import automator.RequiresSchemas;
+import automator.ReviewStatus;
 import automator.ServerStatusCheck;
-import com.microsoft.playwright.*;
+import automator.StatusSnapshot;
 import org.testng.Assert;
+import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
-import java.io.FileInputStream;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.sql.Statement;
-import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
 
+@RequiresSchemas(DBFactory.CONNECTION_NAMES.LENDING)
 public class CancelExpiredTopupTest {
+    private static final String TOPUP_APP_NAME = "com.whizdm.moneyview.loans.topup";
 
-    private Connection lendingConnection;
-    private APIRequestContext requestContext;
+    // environment -> one line of the aggregated report
+    private final Map<String, String> outcomes = new ConcurrentSkipListMap<>();
 
     @BeforeClass
     public void setUp() throws Exception {
         Logger.logInfo("Starting setup...");
 
-        // Connect to databases
-        DatabaseConnection.connectToDatabases();
+        // Connect to the databases this class declares (other fan-out environments connect on first use)
+        DatabaseConnection.connectToDatabases(getClass());
 
-        // Perform server status check if not completed
-        if (!ServerStatusCheck.isServerCheckCompleted()) {
-            Logger.logInfo("Running server status check...");
-            ServerStatusCheck.main(null);
-            Assert.assertTrue(ServerStatusCheck.isServerCheckCompleted(),
-                    getTimestamp() + " ERROR: Server status check failed!");
-        }
-
-        // Load properties from configuration file
-        Properties properties = loadProperties();
-
-        String environment = properties.getProperty("environment");
-        String url = properties.getProperty(environment + ".lending");
-        String username = properties.getProperty(environment + ".lending_database_username");
-        String password = properties.getProperty(environment + ".lending_database_password");
-
-        // Establish a connection to the lending database
-        lendingConnection = DriverManager.getConnection(url, username, password);
+        // One concurrent pre-flight for every environment this run targets
+        Logger.logInfo("Running server status check...");
+        ServerStatusCheck.check(ConfigManager.getFanOutEnvironments().toArray(new String[0]));
+    }
 
-        // Initialize Playwright and set up API request context
-        Playwright playwright = Playwright.create();
-        requestContext = playwright.request().newContext(new APIRequest.NewContextOptions()
-                .setBaseURL("https://" + environment + ".stg.whizdm.com"));
+    @AfterClass
+    public void tearDown() throws Exception {
+        StringBuilder report = new StringBuilder("CancelExpiredTopup across environments:");
+        for (Map.Entry<String, String> entry : outcomes.entrySet()) {
+            report.append(System.lineSeparator()).append(String.format("  %-8s %s", entry.getKey(), entry.getValue()));
+        }
+        Logger.logInfo(report.toString());
+        QueryMetrics.logStats();
     }
 
-    @Test
-    public void testCancelExpiredTopup() throws Exception {
-        Logger.logInfo("Fetching statuses before cron...");
-        List<String> initialStatuses = getStatusesBeforeCron();
-
-        Logger.logInfo("Triggering the API call to cancel expired top-ups...");
-        APIResponse response = requestContext.get("/loans/services/api/topup/cron/cancelExpiredTopup");
-
-        // Check the response status code and log accordingly
-        Logger.logInfo("API Response Status Code: " + response.status());
-        if (response.status() == 204) {
-            Logger.logInfo("API call successful with 204 No Content.");
-        } else if (response.status() == 200) {
-            Logger.logInfo("API call successful with 200 OK.");
-        } else {
-            Assert.fail(getTimestamp() + " ERROR: API call failed! Expected: 200 or 204, Actual: " + response.status());
+    // fanout.environments; each one runs on its own TestNG data-provider thread
+    @DataProvider(name = "environments", parallel = true)
+    public Object[][] environments() {
+        List<String> environments = ConfigManager.getFanOutEnvironments();
+        Object[][] data = new Object[environments.size()][];
+        for (int i = 0; i < environments.size(); i++) {
+            data[i] = new Object[]{environments.get(i)};
         }
+        return data;
+    }
 
-        // Fetch updated statuses after the cron job execution
-        Logger.logInfo("Fetching updated statuses after cron...");
-        List<String> updatedStatuses = getStatusesAfterCron();
+    @Test(dataProvider = "environments")
+    public void testCancelExpiredTopup(String environment) throws Exception {
+        long start = System.nanoTime();
+        outcomes.put(environment, "FAILED");
+        Assert.assertTrue(ServerStatusCheck.isServerCheckCompleted(environment),
+                getTimestamp() + " ERROR: Server status check failed for " + environment + "!");
+
+        EnvironmentContext context = EnvironmentContext.of(environment);
+        try (Connection lendingConnection = context.getDataBase(DBFactory.CONNECTION_NAMES.LENDING).getConnection()) {
+            Logger.logInfo("[" + environment + "] Fetching statuses before cron...");
+            StatusSnapshot initialStatuses = getStatusesBeforeCron(lendingConnection);
+            Logger.logInfo("[" + environment + "] Before cron: " + initialStatuses.describe());
+
+            Logger.logInfo("[" + environment + "] Triggering the API call to cancel expired top-ups...");
+            int status = HttpTransport.getStatus(context.getBaseUrl() + "/loans/services/api/topup/cron/cancelExpiredTopup");
+
+            // Check the response status code and log accordingly
+            Logger.logInfo("[" + environment + "] API Response Status Code: " + status);
+            if (status == 204) {
+                Logger.logInfo("API call successful with 204 No Content.");
+            } else if (status == 200) {
+                Logger.logInfo("API call successful with 200 OK.");
+            } else {
+                Assert.fail(getTimestamp() + " ERROR: API call failed on " + environment + "! Expected: 200 or 204, Actual: " + status);
+            }
 
-        // Validate that the application statuses were correctly updated
-        validateStatuses(initialStatuses, updatedStatuses);
+            // Fetch updated statuses after the cron job execution
+            Logger.logInfo("[" + environment + "] Fetching updated statuses after cron...");
+            StatusSnapshot updatedStatuses = getStatusesAfterCron(lendingConnection, initialStatuses);
+            Logger.logInfo("[" + environment + "] After cron: " + updatedStatuses.describe());
 
-        // Fetch and log the count of newly cancelled applications
-        int newlyCancelledCount = getNewlyCancelledCountAfterCron();
-        Logger.logInfo("Newly system_cancelled app records count: " + newlyCancelledCount);
-    }
+            // Validate that the application statuses were correctly updated
+            validateStatuses(initialStatuses, updatedStatuses);
 
-    private List<String> getStatusesBeforeCron() throws Exception {
-        String query = "SELECT user_data_review_status FROM loan_application " +
-                "WHERE app_name = 'com.whizdm.moneyview.loans.topup' " +
-                "AND user_data_review_status IN ('DOCS_UPLOADED', 'PENDING_REVIEW', 'FRAUD_REVIEW', 'NACH_EMAIL_SENT', 'KYC_VERIFICATION', 'MV_COMPLIANCE', 'LOAN_APPROVED');";
-        return getStatusesFromDatabase(query);
+            // Fetch and log the count of newly cancelled applications
+            int newlyCancelledCount = getNewlyCancelledCountAfterCron(lendingConnection);
+            Logger.logInfo("[" + environment + "] Newly system_cancelled app records count: " + newlyCancelledCount);
+            outcomes.put(environment, String.format("PASSED  eligible=%d, newly cancelled=%d, %d ms",
+                    countEligible(initialStatuses), newlyCancelledCount,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+        }
     }
 
-    private List<String> getStatusesAfterCron() throws Exception {
-        String query = "SELECT user_data_review_status FROM loan_application " +
-                "WHERE app_name = 'com.whizdm.moneyview.loans.topup' " +
-                "AND user_data_review_status = 'SYSTEM_CANCELLED';";
-        return getStatusesFromDatabase(query);
+    // Disbursal stages are captured too, so a wrongly cancelled application can be traced by id
+    private StatusSnapshot getStatusesBeforeCron(Connection lendingConnection) throws Exception {
+        Set<ReviewStatus> statuses = EnumSet.copyOf(ReviewStatus.IN_REVIEW);
+        statuses.addAll(ReviewStatus.DISBURSAL);
+        return StatusSnapshot.capture(lendingConnection, TOPUP_APP_NAME, statuses);
     }
 
-    private List<String> getStatusesFromDatabase(String query) throws Exception {
-        List<String> statuses = new ArrayList<>();
-        try (PreparedStatement preparedStatement = lendingConnection.prepareStatement(query);
-             ResultSet resultSet = preparedStatement.executeQuery()) {
+    // Only the applications captured before the cron, not every topup ever cancelled
+    private StatusSnapshot getStatusesAfterCron(Connection lendingConnection, StatusSnapshot initialStatuses)
+            throws Exception {
+        return initialStatuses.recapture(lendingConnection, EnumSet.of(ReviewStatus.SYSTEM_CANCELLED));
+    }
 
-            while (resultSet.next()) {
-                statuses.add(resultSet.getString("user_data_review_status"));
-            }
+    // The disbursal rows in the before snapshot are there for tracing only and are never eligible
+    private int countEligible(StatusSnapshot initialStatuses) {
+        int eligible = 0;
+        for (ReviewStatus status : ReviewStatus.IN_REVIEW) {
+            eligible += initialStatuses.count(status);
         }
-        return statuses;
+        return eligible;
     }
 
-    private void validateStatuses(List<String> initialStatuses, List<String> updatedStatuses) {
-        for (String status : initialStatuses) {
-            if (status.equals("READY_FOR_DISBURSAL") || status.equals("DISBURSAL_FAILED") ||
-                    status.equals("DISBURSAL_INITIATED") || status.equals("DISBURSED")) {
-                Assert.assertFalse(updatedStatuses.contains(status),
-                        getTimestamp() + " ERROR: Invalid cancellation for status: " + status);
-            } else {
-                Assert.assertTrue(updatedStatuses.contains("SYSTEM_CANCELLED"),
+    private void validateStatuses(StatusSnapshot initialStatuses, StatusSnapshot updatedStatuses) {
+        EnumMap<ReviewStatus, List<String>> cancelled = initialStatuses.transitionsTo(updatedStatuses);
+        for (ReviewStatus status : ReviewStatus.DISBURSAL) {
+            List<String> ids = cancelled.getOrDefault(status, List.of());
+            Assert.assertTrue(ids.isEmpty(),
+                    getTimestamp() + " ERROR: Invalid cancellation for status: " + status + " " + ids);
+        }
+        for (ReviewStatus status : ReviewStatus.IN_REVIEW) {
+            if (initialStatuses.count(status) > 0) {
+                Assert.assertFalse(updatedStatuses.isEmpty(),
                         getTimestamp() + " INFO: Status not cancelled: " + status);
             }
+            int count = cancelled.getOrDefault(status, List.of()).size();
+            if (count > 0) {
+                Logger.logInfo(status + " -> SYSTEM_CANCELLED: " + count);
+            }
         }
     }
 
-    private int getNewlyCancelledCountAfterCron() throws Exception {
+    private int getNewlyCancelledCountAfterCron(Connection lendingConnection) throws Exception {
         String query = "SELECT COUNT(*) FROM loan_application " +
                 "WHERE app_name = 'com.whizdm.moneyview.loans.topup' " +
                 "AND user_data_review_status = 'SYSTEM_CANCELLED' " +
@@ -147,12 +171,4 @@ public class CancelExpiredTopupTest {
         DateTimeFormatter dtf = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
         return "[" + dtf.format(LocalDateTime.now()) + "]";
     }
-
-    private Properties loadProperties() throws IOException {
-        Properties properties = new Properties();
-        try (FileInputStream fis = new FileInputStream("src/main/resources/config.properties")) {
-            properties.load(fis);
-        }
-        return properties;
-    }
 }
\ No newline at end of file
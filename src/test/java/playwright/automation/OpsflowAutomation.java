@@ -6,6 +6,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.microsoft.playwright.*;
 import com.microsoft.playwright.options.AriaRole;
+import com.microsoft.playwright.options.WaitUntilState;
 import com.microsoft.playwright.options.WaitForSelectorState;
 import okhttp3.*;
 import okhttp3.Response;
@@ -14,10 +15,22 @@ import org.testng.annotations.Test;
 import java.io.File;
 import java.io.IOException;
 import java.sql.SQLException;
+import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
 
+@RequiresSchemas(DBFactory.CONNECTION_NAMES.LENDING)
 public class OpsflowAutomation {
+    private static final String REMARK_SELECTOR = "textarea[name=\"remark\"]";
+
+    private static final NetworkProfile networkProfile = NetworkProfile.fromConfig();
+
+    // Wall-clock time of each UI step (lock, remark, save, ...) across every application this JVM drove
+    private static final Map<String, LatencyHistogram> stepTimings = new ConcurrentSkipListMap<>();
+
+    // One machine for the whole run, shared by the batch workers; its cheapest paths are cached per mode set
+    private final ReviewStateMachine stateMachine = ReviewStateMachine.standard();
+
     @Test
     public void Opsflow() throws SQLException, IOException, ClassNotFoundException {
         Logger.logInfo("Automation Started...");
@@ -29,22 +42,156 @@ public class OpsflowAutomation {
         }
         String loanAppID = ConfigManager.getLoanAppID();
         String reviewStatus = DatabaseConnection.fetchUserDataReviewStatus(loanAppID);
-        if (reviewStatus.equals("NACH_EMAIL_SENT")) {
-            uploadNachDoc(loanAppID);
-        }
-        try (Playwright playwright = Playwright.create();
-             Browser browser = playwright.chromium().launch(new BrowserType.LaunchOptions()
-                     .setHeadless(ConfigManager.isHeadless())
-                     .setArgs(List.of("--start-maximized"))
-             )) {
-            executeAutomationFlow(playwright, browser, loanAppID, reviewStatus);
+        try {
+            transition(loanAppID, reviewStatus);
         } catch (Exception e) {
             Logger.logError("An error occurred: " + e.getMessage());
         }
+        logStepTimings();
+        BrowserSessionCache.logStats();
+        networkProfile.logStats();
+    }
+
+    // Per-application outcome of a batch run
+    public record OpsflowResult(String loanAppID, String initialStatus, String finalStatus, long durationMs,
+                                String error) {
+        public boolean isSuccess() {
+            return error == null && Objects.equals(finalStatus, ConfigManager.getTargetState());
+        }
+    }
+
+    // Drives every id in opsflow.batch.loan_app_IDs to TARGET_STATE, opsflow.batch.parallelism at a time
+    @Test
+    public void OpsflowBatch() throws InterruptedException {
+        List<String> loanAppIDs = ConfigManager.getBatchLoanAppIDs();
+        if (loanAppIDs.isEmpty()) {
+            Logger.logInfo("No opsflow.batch.loan_app_IDs configured, skipping batch run.");
+            return;
+        }
+        if (!initializeDatabaseConnections() || !loadConfigProperties()) {
+            return;
+        }
+        List<OpsflowResult> results = runBatch(loanAppIDs, ConfigManager.getBatchParallelism());
+        logBatchSummary(results);
+        logStepTimings();
+        BrowserSessionCache.logStats();
+        networkProfile.logStats();
+        List<String> failed = new ArrayList<>();
+        for (OpsflowResult result : results) {
+            if (!result.isSuccess()) {
+                failed.add(result.loanAppID());
+            }
+        }
+        Assert.assertTrue(failed.isEmpty(), "Applications not moved to " + ConfigManager.getTargetState() + ": " + failed);
+    }
+
+    /**
+     * Runs the transitions for every loan app ID on {@code parallelism} worker threads.
+     * In ui mode each application leases a driver and Browser from PlaywrightPool (bounded by
+     * playwright.pool.max_drivers) and gets a fresh BrowserContext on it.
+     */
+    public List<OpsflowResult> runBatch(List<String> loanAppIDs, int parallelism) throws InterruptedException {
+        Map<String, String> initialStatuses = fetchInitialStatuses(loanAppIDs);
+        logBatchPlans(loanAppIDs, initialStatuses);
+        Queue<String> pending = new ConcurrentLinkedQueue<>(new LinkedHashSet<>(loanAppIDs));
+        Map<String, OpsflowResult> results = new ConcurrentHashMap<>();
+        int workers = Math.max(1, Math.min(parallelism, pending.size()));
+        Logger.logInfo("Running Opsflow for " + pending.size() + " applications with " + workers + " workers");
+
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            for (int i = 0; i < workers; i++) {
+                executor.submit(() -> {
+                    String loanAppID;
+                    while ((loanAppID = pending.poll()) != null) {
+                        try {
+                            results.put(loanAppID, runOne(loanAppID, initialStatuses.get(loanAppID)));
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        } catch (RuntimeException e) {
+                            Logger.logError("Opsflow worker failed for " + loanAppID + ": " + e.getMessage());
+                        }
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        }
+
+        List<OpsflowResult> ordered = new ArrayList<>();
+        for (String loanAppID : new LinkedHashSet<>(loanAppIDs)) {
+            ordered.add(results.getOrDefault(loanAppID, new OpsflowResult(loanAppID, initialStatuses.get(loanAppID),
+                    null, 0, "Not run (no browser available)")));
+        }
+        return ordered;
+    }
+
+    // One round-trip for every application's starting status instead of one per application
+    private Map<String, String> fetchInitialStatuses(List<String> loanAppIDs) {
+        Map<String, String> statuses = new HashMap<>();
+        try {
+            for (Map.Entry<String, LoanApplicationLookup.LoanApplication> entry : LoanApplicationLookup.fetch(loanAppIDs).entrySet()) {
+                statuses.put(entry.getKey(), entry.getValue().reviewStatus());
+            }
+        } catch (SQLException e) {
+            Logger.logError("Error fetching review statuses for batch: " + e.getMessage());
+        }
+        return statuses;
+    }
+
+    // Every application's path to TARGET_STATE, planned before any browser is opened
+    private void logBatchPlans(List<String> loanAppIDs, Map<String, String> initialStatuses) {
+        Set<ReviewStateMachine.Mode> modes = handledModes();
+        ReviewStatus target = ReviewStatus.of(ConfigManager.getTargetState());
+        StringBuilder report = new StringBuilder("Opsflow batch plan:");
+        for (String loanAppID : new LinkedHashSet<>(loanAppIDs)) {
+            String status = initialStatuses.get(loanAppID);
+            report.append(System.lineSeparator()).append(String.format("  %-34s %s", loanAppID,
+                    status == null ? "not found" : stateMachine.describePlan(ReviewStatus.of(status), target, modes)));
+        }
+        Logger.logInfo(report.toString());
+    }
+
+    private OpsflowResult runOne(String loanAppID, String reviewStatus) throws InterruptedException {
+        long start = System.nanoTime();
+        if (reviewStatus == null) {
+            return new OpsflowResult(loanAppID, null, null, 0, "No data found for loan application ID");
+        }
+        String finalStatus = reviewStatus;
+        String error = null;
+        try {
+            finalStatus = transition(loanAppID, reviewStatus);
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception | AssertionError e) {
+            Logger.logError("Opsflow failed for " + loanAppID + ": " + e.getMessage());
+            finalStatus = DatabaseConnection.verifyDatabaseStatus(loanAppID);
+            error = e.getMessage();
+        }
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return new OpsflowResult(loanAppID, reviewStatus, finalStatus, durationMs, error);
+    }
+
+    private void logBatchSummary(List<OpsflowResult> results) {
+        int succeeded = 0;
+        StringBuilder report = new StringBuilder("Opsflow batch summary:");
+        for (OpsflowResult result : results) {
+            if (result.isSuccess()) {
+                succeeded++;
+            }
+            report.append(System.lineSeparator()).append(String.format("  %-34s %-8s %-18s -> %-18s %8d ms %s",
+                    result.loanAppID(), result.isSuccess() ? "OK" : "FAILED", result.initialStatus(),
+                    result.finalStatus(), result.durationMs(), result.error() == null ? "" : result.error()));
+        }
+        report.append(System.lineSeparator()).append("  ").append(succeeded).append('/').append(results.size())
+                .append(" reached ").append(ConfigManager.getTargetState());
+        Logger.logInfo(report.toString());
     }
 
     private boolean initializeDatabaseConnections() {
-        if (!DatabaseConnection.connectToDatabases()) {
+        if (!DatabaseConnection.connectToDatabases(getClass())) {
             Logger.logError("Database connection failed. Aborting test.");
             return false;
         }
@@ -62,23 +209,73 @@ public class OpsflowAutomation {
     }
 
     private void uploadNachDoc(String loanAppID) throws IOException, SQLException, ClassNotFoundException {
-        String baseURL = "https://" + ConfigManager.getEnvironment() + ".stg.whizdm.com/";
-        String url = baseURL + "loans/loans/uploadSignedNach";
+        String url = EnvironmentContext.getDefault().getBaseUrl() + "/loans/loans/uploadSignedNach";
         upload_nach_doc(url, loanAppID);
     }
 
-    private void executeAutomationFlow(Playwright playwright, Browser browser, String loanAppID, String reviewStatus) throws InterruptedException {
+    // Moves the application towards TARGET_STATE in the configured opsflow.transition_mode; returns where it ended up
+    private String transition(String loanAppID, String reviewStatus) throws Exception {
+        if (ConfigManager.isOpsflowApiMode()) {
+            return processLoanApplicationViaApi(loanAppID, reviewStatus);
+        }
+        try (PlaywrightPool.Lease lease = PlaywrightPool.acquire()) {
+            return executeAutomationFlow(lease, loanAppID, reviewStatus);
+        }
+    }
+
+    // Returns the review status the application ended up in; the context is closed with the lease
+    private String executeAutomationFlow(PlaywrightPool.Lease lease, String loanAppID, String reviewStatus) throws Exception {
         Logger.logInfo("Browser launched in headless mode: " + ConfigManager.isHeadless());
-        BrowserContext context = browser.newContext(new Browser.NewContextOptions().setViewportSize(null));
+        String environment = ConfigManager.getEnvironment();
+        String username = ConfigManager.getUsername();
+        String baseURL = EnvironmentContext.of(environment).getBaseUrl() + "/loans";
+        String loanAppURL = baseURL + "/loans/loanApplication?id=" + loanAppID;
+        // One login per environment and user; every other context starts from its storage state
+        String storageState = BrowserSessionCache.getOrLogin(environment, username, () -> loginForStorageState(lease, baseURL));
+        Browser.NewContextOptions options = new Browser.NewContextOptions().setViewportSize(null);
+        if (storageState != null) {
+            options.setStorageState(storageState);
+        }
+        BrowserContext context = lease.newContext(options);
+        NetworkProfile.Stats networkStats = networkProfile.apply(context);
         Page page = context.newPage();
         page.onDialog(dialog -> {
             Logger.logError("Popup detected: " + dialog.message());
             dialog.dismiss();
         });
-        String baseURL = "https://" + ConfigManager.getEnvironment() + ".stg.whizdm.com/loans";
-        String loginURL = baseURL + "/invLogin";
-        String loanAppURL = baseURL + "/loans/loanApplication?id=" + ConfigManager.getLoanAppID();
         Logger.logInfo("Review status for loan application ID " + loanAppID + ": " + reviewStatus);
+        page.navigate(loanAppURL);
+        if (isLoginPage(page)) {
+            // The saved session has expired server-side: log in on this page and refresh the cache
+            Logger.logInfo("Saved session rejected, logging in again");
+            BrowserSessionCache.invalidate(environment, username, storageState);
+            login(page, baseURL);
+            BrowserSessionCache.save(environment, username, context.storageState());
+            page.navigate(loanAppURL);
+        }
+        Logger.logInfo("Successfully landed on Loan Application Page");
+        applyZoom(page);
+        try {
+            return processLoanApplication(page, loanAppID, reviewStatus);
+        } finally {
+            Logger.logInfo("Network for " + loanAppID + ": " + networkStats.describe());
+        }
+    }
+
+    // Logs in on a throwaway context and returns its storage state for BrowserSessionCache
+    private String loginForStorageState(PlaywrightPool.Lease lease, String baseURL) {
+        try (BrowserContext loginContext = lease.browser().newContext()) {
+            Page page = loginContext.newPage();
+            // Unfiltered, so the sizes of what the console contexts block can be estimated
+            NetworkProfile.learnSizes(page);
+            login(page, baseURL);
+            return loginContext.storageState();
+        }
+    }
+
+    private void login(Page page, String baseURL) {
+        String loginURL = baseURL + "/invLogin";
+        long loginStart = System.nanoTime();
         Logger.logInfo("Navigating to Loans page: " + loginURL);
         page.navigate(loginURL);
         page.locator(ConfigManager.getUsernameSelector()).fill(ConfigManager.getUsername());
@@ -86,65 +283,184 @@ public class OpsflowAutomation {
         Logger.logInfo("Entered Login credentials");
         page.locator(ConfigManager.getLoginButtonSelector()).click();
         page.waitForLoadState();
-        page.navigate(loanAppURL);
-        Logger.logInfo("Successfully landed on Loan Application Page");
-        applyZoom(page);
-        processLoanApplication(page, loanAppID, reviewStatus);
+        recordStep("login", loginStart);
+    }
+
+    private static boolean isLoginPage(Page page) {
+        return page.url().contains("/invLogin");
     }
 
-    private void processLoanApplication(Page page, String loanAppID, String reviewStatus) throws InterruptedException {
+    private String processLoanApplication(Page page, String loanAppID, String reviewStatus) throws Exception {
         Locator lockButton = page.getByRole(AriaRole.BUTTON, new Page.GetByRoleOptions().setName("Lock").setExact(true));
         if (lockButton.isVisible()) {
             Logger.logInfo("Application is not locked, proceeding to lock it.");
+            long lockStart = System.nanoTime();
             boolean isLocked = clickWithRetry(page, lockButton);
             if (!isLocked) {
                 Logger.logError("Failed to lock the application after multiple attempts.");
-                return;
+                return reviewStatus;
+            }
+            // The Lock button disappears once the lock has been taken
+            try {
+                lockButton.waitFor(new Locator.WaitForOptions().setState(WaitForSelectorState.HIDDEN)
+                        .setTimeout(ConfigManager.getOpsflowUiTimeoutMs()));
+            } catch (TimeoutError e) {
+                Logger.logError("Lock button still visible after clicking it, proceeding anyway.");
             }
-            page.waitForTimeout(1000);
+            recordStep("lock", lockStart);
         } else {
             Logger.logInfo("Application is already locked, proceeding further.");
         }
         page.evaluate("window.scrollTo({ top: document.body.scrollHeight, behavior: 'smooth' });");
-        String[] stages = {"DOCS_UPLOADED", "PENDING_REVIEW", "FRAUD_REVIEW", "NACH_EMAIL_SENT", "KYC_VERIFICATION"};
+        ReviewStateMachine.EdgeHandler viaUi = (id, edge) -> moveViaUi(page, id, edge);
+        Map<ReviewStateMachine.Mode, ReviewStateMachine.EdgeHandler> handlers = new EnumMap<>(ReviewStateMachine.Mode.class);
+        handlers.put(ReviewStateMachine.Mode.CONSOLE, viaUi);
+        handlers.put(ReviewStateMachine.Mode.UI, viaUi);
+        handlers.put(ReviewStateMachine.Mode.DB, (id, edge) -> moveViaDbFixture(page, id, edge));
+        String finalStatus = driveToTarget(loanAppID, reviewStatus, handlers);
+        Logger.logInfo("Portal URL: " + page.url());
+        return finalStatus;
+    }
+
+    // Same moves as processLoanApplication, made through the loans console endpoints instead of the browser
+    private String processLoanApplicationViaApi(String loanAppID, String reviewStatus) throws Exception {
+        OpsConsoleClient console = OpsConsoleClient.forEnvironment(ConfigManager.getEnvironment());
+        long lockStart = System.nanoTime();
+        int lockStatus = console.lock(loanAppID);
+        recordStep("api_lock", lockStart);
+        if (lockStatus >= 400) {
+            Logger.logError("Failed to lock the application: HTTP " + lockStatus);
+            return reviewStatus;
+        }
+        ReviewStateMachine.EdgeHandler viaApi = (id, edge) -> moveViaApi(console, id, edge);
+        Map<ReviewStateMachine.Mode, ReviewStateMachine.EdgeHandler> handlers = new EnumMap<>(ReviewStateMachine.Mode.class);
+        handlers.put(ReviewStateMachine.Mode.CONSOLE, viaApi);
+        handlers.put(ReviewStateMachine.Mode.API, viaApi);
+        handlers.put(ReviewStateMachine.Mode.DB, (id, edge) -> moveViaDbFixture(null, id, edge));
+        return driveToTarget(loanAppID, reviewStatus, handlers);
+    }
+
+    // The modes processLoanApplication / processLoanApplicationViaApi register handlers for
+    private static Set<ReviewStateMachine.Mode> handledModes() {
+        return ConfigManager.isOpsflowApiMode()
+                ? EnumSet.of(ReviewStateMachine.Mode.CONSOLE, ReviewStateMachine.Mode.API, ReviewStateMachine.Mode.DB)
+                : EnumSet.of(ReviewStateMachine.Mode.CONSOLE, ReviewStateMachine.Mode.UI, ReviewStateMachine.Mode.DB);
+    }
+
+    // Plans the cheapest path to TARGET_STATE and walks it; returns the status the application ended up in
+    private String driveToTarget(String loanAppID, String reviewStatus,
+                                 Map<ReviewStateMachine.Mode, ReviewStateMachine.EdgeHandler> handlers) throws Exception {
+        if (reviewStatus.equals("TEST_IGNORE") || reviewStatus.equals("REJECTED")) {
+            handleErrorStatus(reviewStatus);
+        }
         String targetState = ConfigManager.getTargetState();
-        while (!Objects.equals(targetState, reviewStatus)) {
-            Logger.logInfo("Current Status: " + reviewStatus);
-            if (reviewStatus.equals("TEST_IGNORE") || reviewStatus.equals("REJECTED")) {
-                handleErrorStatus(reviewStatus);
-                return;
-            }
-            page.waitForTimeout(2000);
-            page.locator("textarea[name=\"remark\"]").click();
-            page.locator("textarea[name=\"remark\"]").fill("Test");
-            page.waitForTimeout(1000);
-            Locator statusButton = page.getByRole(AriaRole.BUTTON, new Page.GetByRoleOptions().setName(reviewStatus));
-            statusButton.waitFor(new Locator.WaitForOptions().setState(WaitForSelectorState.VISIBLE).setTimeout(60000));
-            statusButton.click();
-            String nextStatus = determineNextStatus(stages, reviewStatus);
-            Logger.logInfo("Attempting to transition to status: " + nextStatus);
-            page.locator("a").filter(new Locator.FilterOptions().setHasText(nextStatus)).click();
-            page.getByRole(AriaRole.BUTTON, new Page.GetByRoleOptions().setName("Save")).nth(4).click();
-            String errText = getErrorAfterSave(page);
-            if (errText.contains("Failed to move")) {
-                Logger.logError("Fatal error encountered after saving status: " + errText);
-                if (errText.contains("Gateway Time-out")) {
-                    Logger.logInfo("Retrying due to Gateway Time-out error...");
-                    retryTransition(page, reviewStatus, nextStatus, loanAppID);
-                }
-            }
-            String updatedStatus = pollDatabaseForStatusUpdate(loanAppID, nextStatus);
-            if (!updatedStatus.equals(nextStatus)) {
-                Logger.logError("Database did not update to " + nextStatus + " after waiting.");
-                return;
+        if (Objects.equals(targetState, reviewStatus)) {
+            return reviewStatus;
+        }
+        ReviewStatus from = ReviewStatus.of(reviewStatus);
+        ReviewStatus target = ReviewStatus.of(targetState);
+        if (stateMachine.plan(from, target, handlers.keySet()) == null) {
+            Logger.logError("No transition path from " + reviewStatus + " to " + targetState + " using " + handlers.keySet());
+            return reviewStatus;
+        }
+        Logger.logInfo("Transition plan for " + loanAppID + ": " + stateMachine.describePlan(from, target, handlers.keySet()));
+        TransitionOutcome outcome = stateMachine.drive(loanAppID, from, target, handlers);
+        String finalStatus = resolveStatus(outcome, loanAppID);
+        if (!outcome.isConfirmed()) {
+            Logger.logError("Database did not reach " + targetState + " after waiting (now " + finalStatus + ").");
+        }
+        return finalStatus;
+    }
+
+    // One move on the ops console page; reloads the page once the move is confirmed
+    private TransitionOutcome moveViaUi(Page page, String loanAppID, ReviewStateMachine.Edge edge) throws IOException,
+            SQLException, ClassNotFoundException {
+        prepareEdge(loanAppID, edge);
+        String reviewStatus = edge.from().name();
+        String nextStatus = edge.to().name();
+        long remarkStart = System.nanoTime();
+        Locator remark = page.locator(REMARK_SELECTOR);
+        remark.waitFor(new Locator.WaitForOptions().setState(WaitForSelectorState.VISIBLE)
+                .setTimeout(ConfigManager.getOpsflowUiTimeoutMs()));
+        remark.click();
+        remark.fill("Test");
+        recordStep("remark", remarkStart);
+        long menuStart = System.nanoTime();
+        Locator statusButton = page.getByRole(AriaRole.BUTTON, new Page.GetByRoleOptions().setName(reviewStatus));
+        statusButton.waitFor(new Locator.WaitForOptions().setState(WaitForSelectorState.VISIBLE).setTimeout(60000));
+        statusButton.click();
+        page.locator("a").filter(new Locator.FilterOptions().setHasText(nextStatus)).click();
+        recordStep("status_menu", menuStart);
+        TransitionOutcome outcome = saveAndAwaitOutcome(page, loanAppID, edge);
+        if (outcome.kind() == TransitionOutcome.Kind.ERROR_BANNER || outcome.kind() == TransitionOutcome.Kind.SAVE_FAILED) {
+            Logger.logError("Fatal error encountered after saving status: " + outcome.detail());
+            if (isGatewayTimeout(outcome)) {
+                Logger.logInfo("Retrying due to Gateway Time-out error...");
+                outcome = retryTransition(page, edge, loanAppID, outcome);
             }
-            page.reload();
-            page.waitForTimeout(3000);
-            applyZoom(page);
-            page.evaluate("window.scrollTo({ top: 0, behavior: 'smooth' });");
-            reviewStatus = updatedStatus;
         }
-        Logger.logInfo("Portal URL: " + page.url());
+        outcome = settle(outcome, loanAppID, edge);
+        if (outcome.isConfirmed()) {
+            reloadAfterMove(page);
+        }
+        return outcome;
+    }
+
+    // Brings the console page up to date with a move; DOMContentLoaded is enough, the next move waits for the remark box
+    private void reloadAfterMove(Page page) {
+        long reloadStart = System.nanoTime();
+        page.reload(new Page.ReloadOptions().setWaitUntil(WaitUntilState.DOMCONTENTLOADED));
+        recordStep("reload", reloadStart);
+        applyZoom(page);
+        page.evaluate("window.scrollTo({ top: 0, behavior: 'smooth' });");
+    }
+
+    private TransitionOutcome moveViaApi(OpsConsoleClient console, String loanAppID, ReviewStateMachine.Edge edge)
+            throws IOException, SQLException, ClassNotFoundException {
+        prepareEdge(loanAppID, edge);
+        TransitionOutcome outcome = TransitionOutcome.await(ConfigManager.getEnvironment(), loanAppID,
+                edge.to().name(), () -> console.changeStatus(loanAppID, edge.from().name(), edge.to().name(), "Test"), edge.timeout());
+        recordOutcome("api_transition", loanAppID, outcome);
+        if (outcome.kind() == TransitionOutcome.Kind.SAVE_FAILED) {
+            Logger.logError("Fatal error encountered after saving status: " + outcome.detail());
+        }
+        return settle(outcome, loanAppID, edge);
+    }
+
+    // Test fixture: sets the status directly, only if the row is still in edge.from(). When the moves are driven
+    // on a console page (null otherwise) it is reloaded, so a UI move after this one finds the new status button.
+    private TransitionOutcome moveViaDbFixture(Page page, String loanAppID, ReviewStateMachine.Edge edge)
+            throws IOException, SQLException, ClassNotFoundException {
+        prepareEdge(loanAppID, edge);
+        TransitionOutcome outcome = TransitionOutcome.await(ConfigManager.getEnvironment(), loanAppID,
+                edge.to().name(), () -> DatabaseConnection.updateReviewStatus(loanAppID, edge.from().name(), edge.to().name()) == 1 ? 200 : 409,
+                edge.timeout());
+        recordOutcome("db_fixture", loanAppID, outcome);
+        if (page != null && outcome.isConfirmed()) {
+            reloadAfterMove(page);
+        }
+        return outcome;
+    }
+
+    // Whatever an edge needs in place before the move, whichever way it is made
+    private void prepareEdge(String loanAppID, ReviewStateMachine.Edge edge) throws IOException, SQLException,
+            ClassNotFoundException {
+        // A DB fixture only sets the status, it does not need the document the console checks for
+        if (edge.from() == ReviewStatus.NACH_EMAIL_SENT && edge.mode() != ReviewStateMachine.Mode.DB) {
+            uploadNachDoc(loanAppID);
+        }
+    }
+
+    // A banner or failed call does not always mean the move failed; one DB read settles it
+    private static TransitionOutcome settle(TransitionOutcome outcome, String loanAppID, ReviewStateMachine.Edge edge) {
+        if (outcome.kind() != TransitionOutcome.Kind.ERROR_BANNER && outcome.kind() != TransitionOutcome.Kind.SAVE_FAILED) {
+            return outcome;
+        }
+        String status = DatabaseConnection.verifyDatabaseStatus(loanAppID);
+        if (edge.to().name().equals(status)) {
+            return new TransitionOutcome(TransitionOutcome.Kind.CONFIRMED, status, outcome.detail(), outcome.elapsedMs());
+        }
+        return outcome;
     }
 
     private void handleErrorStatus(String reviewStatus) {
@@ -152,47 +468,55 @@ public class OpsflowAutomation {
         throw new RuntimeException("Application is in " + reviewStatus);
     }
 
-    private String determineNextStatus(String[] stages, String reviewStatus) {
-        for (int i = 0; i < stages.length - 1; i++) {
-            if (stages[i].equals(reviewStatus)) {
-                return stages[i + 1];
-            }
+    // The review status the outcome leaves the application in; a banner or failed Save is settled with one DB read
+    private String resolveStatus(TransitionOutcome outcome, String loanAppID) {
+        switch (outcome.kind()) {
+            case CONFIRMED:
+                return outcome.status();
+            case TERMINAL_STATUS:
+                handleErrorStatus(outcome.status());
+                return outcome.status();
+            case TIMED_OUT:
+                Logger.logError(outcome.detail());
+                return Objects.requireNonNullElse(outcome.status(), "");
+            default:
+                return Objects.requireNonNullElse(DatabaseConnection.verifyDatabaseStatus(loanAppID), "");
         }
-        return "";
     }
 
-    private String pollDatabaseForStatusUpdate(String loanAppID, String nextStatus) throws InterruptedException {
-        final int maxDbAttempts = 12;
-        int dbAttempts = 0;
-        String updatedStatus = "";
-        while (dbAttempts < maxDbAttempts) {
-            updatedStatus = DatabaseConnection.verifyDatabaseStatus(loanAppID);
-            assert updatedStatus != null;
-            if (updatedStatus.equals(nextStatus)) {
-                break;
-            }
-            if (updatedStatus.equals("TEST_IGNORE") || updatedStatus.equals("REJECTED")) {
-                handleErrorStatus(updatedStatus);
-                return updatedStatus;
-            }
-            //page.waitForTimeout(5000);
-            Thread.sleep(5000);
-            dbAttempts++;
-        }
-        return updatedStatus;
+    private static boolean isGatewayTimeout(TransitionOutcome outcome) {
+        String detail = Objects.requireNonNullElse(outcome.detail(), "");
+        return detail.contains("Gateway Time-out") || detail.startsWith("HTTP 504");
     }
 
-    // Helper method: returns error text if visible, otherwise an empty string.
-    private static String getErrorAfterSave(Page page) {
-        Locator errorMessage = page.locator(".alert.alert-danger");
-        int retries = 10;
-        while (retries-- > 0) {
-            if (errorMessage.isVisible()) {
-                return errorMessage.innerText();
-            }
-            page.waitForTimeout(1000);
+    // Clicks Save and races the DB status change, the Save response and the error banner (see TransitionOutcome)
+    private static TransitionOutcome saveAndAwaitOutcome(Page page, String loanAppID, ReviewStateMachine.Edge edge) {
+        Locator saveButton = page.getByRole(AriaRole.BUTTON, new Page.GetByRoleOptions().setName("Save")).nth(4);
+        TransitionOutcome outcome = TransitionOutcome.await(page, ConfigManager.getEnvironment(), loanAppID,
+                edge.to().name(), saveButton::click, edge.timeout());
+        recordOutcome("save_outcome", loanAppID, outcome);
+        return outcome;
+    }
+
+    private static void recordOutcome(String step, String loanAppID, TransitionOutcome outcome) {
+        stepTimings.computeIfAbsent(step, key -> new LatencyHistogram())
+                .recordNanos(TimeUnit.MILLISECONDS.toNanos(outcome.elapsedMs()));
+        Logger.logInfo("Transition outcome for " + loanAppID + ": " + outcome.kind() + " in " + outcome.elapsedMs() + " ms");
+    }
+
+    private static void recordStep(String step, long startNanos) {
+        stepTimings.computeIfAbsent(step, key -> new LatencyHistogram()).recordNanos(System.nanoTime() - startNanos);
+    }
+
+    private static void logStepTimings() {
+        if (stepTimings.isEmpty()) {
+            return;
+        }
+        StringBuilder report = new StringBuilder("Opsflow step timings:");
+        for (Map.Entry<String, LatencyHistogram> entry : stepTimings.entrySet()) {
+            report.append(System.lineSeparator()).append(String.format("  %-12s %s", entry.getKey(), entry.getValue().describe()));
         }
-        return "";
+        Logger.logInfo(report.toString());
     }
 
     private void applyZoom(Page page) {
@@ -214,32 +538,32 @@ public class OpsflowAutomation {
         return false;
     }
 
-    // Helper method to retry the transition in case of Gateway Time-out error.
-    private void retryTransition(Page page, String reviewStatus, String nextStatus, String loanAppID) {
+    // Helper method to retry the transition in case of Gateway Time-out error; returns the last outcome.
+    private TransitionOutcome retryTransition(Page page, ReviewStateMachine.Edge edge, String loanAppID,
+                                              TransitionOutcome outcome) {
         for (int i = 0; i < 3; i++) {
             try {
-                page.locator("textarea[name=\"remark\"]").click();
-                page.locator("textarea[name=\"remark\"]").fill("Retry due to Gateway Time-out");
-                page.waitForTimeout(1000);
+                Locator remark = page.locator(REMARK_SELECTOR);
+                remark.click();
+                remark.fill("Retry due to Gateway Time-out");
 
-                Locator statusButton = page.getByRole(AriaRole.BUTTON, new Page.GetByRoleOptions().setName(reviewStatus));
+                Locator statusButton = page.getByRole(AriaRole.BUTTON, new Page.GetByRoleOptions().setName(edge.from().name()));
                 statusButton.waitFor(new Locator.WaitForOptions().setState(WaitForSelectorState.VISIBLE).setTimeout(60000));
                 statusButton.click();
 
-                page.locator("a").filter(new Locator.FilterOptions().setHasText(nextStatus)).click();
-                page.getByRole(AriaRole.BUTTON, new Page.GetByRoleOptions().setName("Save")).nth(4).click();
-
-                String errText = getErrorAfterSave(page);
-                if (!errText.contains("Gateway Time-out")) {
+                page.locator("a").filter(new Locator.FilterOptions().setHasText(edge.to().name())).click();
+                outcome = saveAndAwaitOutcome(page, loanAppID, edge);
+                if (!isGatewayTimeout(outcome)) {
                     Logger.logInfo("Retry successful.");
-                    return;
+                    return outcome;
                 }
-                Logger.logError("Retry attempt " + (i + 1) + " failed: " + errText);
+                Logger.logError("Retry attempt " + (i + 1) + " failed: " + outcome.detail());
             } catch (Exception e) {
                 Logger.logError("Error during retry attempt " + (i + 1) + ": " + e.getMessage());
             }
         }
         Logger.logError("All retry attempts failed.");
+        return outcome;
     }
     public void upload_nach_doc(String url, String loan_app_id) throws IOException, SQLException, ClassNotFoundException {
         HashMap<String, String> queryParams = new HashMap<>() {{
@@ -269,22 +593,18 @@ public class OpsflowAutomation {
 
         MultipartBody build = requestBody.setType(MultipartBody.FORM).build();
         okhttp3.Request request = new okhttp3.Request.Builder().url(httpURL.toString()).post(build).build();
-        OkHttpClient okHttpClient = new OkHttpClient.Builder()
-                .addInterceptor(chain -> {
-                    okhttp3.Request request1 = chain.request();
-                    String credentials = Credentials.basic("markandey", "markandey");
-                    okhttp3.Request req = request1.newBuilder().addHeader("Authorization", credentials).build();
-                    return chain.proceed(req);
-                })
-                .connectTimeout(12000, TimeUnit.SECONDS)
-                .writeTimeout(12000, TimeUnit.SECONDS)
-                .readTimeout(12000, TimeUnit.SECONDS).build();
-
-        Response response = okHttpClient.newCall(request).execute();
-        assert response.body() != null;
-        JsonNode jsonResponse = getJsonObject(response.body().string());
-
-        Assert.assertEquals(response.code(), 200);
+        // Shared keep-alive transport; the basic-auth client is built once and reused across uploads
+        OkHttpClient okHttpClient = HttpTransport.withBasicAuth("markandey", "markandey");
+
+        int responseCode;
+        JsonNode jsonResponse;
+        try (Response response = okHttpClient.newCall(request).execute()) {
+            assert response.body() != null;
+            responseCode = response.code();
+            jsonResponse = getJsonObject(response.body().string());
+        }
+
+        Assert.assertEquals(responseCode, 200);
         Assert.assertEquals(jsonResponse.get("success"), true);
         Assert.assertEquals(jsonResponse.get("message"), "Signed Nach Uploaded Successfully");
 
@@ -298,7 +618,6 @@ public class OpsflowAutomation {
             sb.append(AlphaNumericString.charAt(index));
         }
         String random_id = sb.toString();
-        DatabaseConnection.connectToDatabases();
         String loan_app_no = DatabaseConnection.fetchloanAppNo(loan_app_id);
         DatabaseConnection.mannualNachQuery(random_id,loan_app_no);
     }
@@ -0,0 +1,49 @@
+package playwright.vkyc;
+
+import automator.VkycFixtures.AgedColumn;
+import automator.VkycFixtures.VkycInfo;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Everything that distinguishes one VKYC calling campaign from another: the campaign_id the lead is
+ * created under, the createLead endpoint, which vkyc_info timestamp is aged to make the application
+ * eligible (see VkycFixtures), and what its vkyc_info row must look like. The steps themselves live in VkycCampaignEngine.
+ */
+public record VkycCampaign(String campaignId, String createLeadPath, AgedColumn agedColumn,
+                           Predicate<VkycInfo> eligibility) {
+
+    // VKYC never attempted: assisted flow on a supported provider, no attempts yet
+    public static final VkycCampaign VKYC_NOTRY = new VkycCampaign("VKYC_NOTRY",
+            "/loans/services/api/vkycCalling/createLeadVkycNoTry", AgedColumn.DATE_CREATED,
+            info -> oneOf(info.status(), "STARTED", "INITIATED", "VKYC_INVALIDATED")
+                    && oneOf(info.provider(), "IN_HOUSE", "HYPERVERGE")
+                    && "ASSISTED".equals(info.flowType()) && info.attempts() == 0);
+
+    // VKYC tried at least once without completing
+    public static final VkycCampaign VKYC_TRIED = new VkycCampaign("VKYC_TRIED",
+            "/loans/services/api/vkycCalling/createLeadVkycTried", AgedColumn.DATE_MODIFIED,
+            info -> oneOf(info.status(), "IN_PROGRESS", "INITIATED", "FAILED", "RETRY", "VKYC_INVALIDATED")
+                    && "ASSISTED".equals(info.flowType()) && info.attempts() > 0);
+
+    private static final List<VkycCampaign> campaigns = List.of(VKYC_NOTRY, VKYC_TRIED);
+
+    public static VkycCampaign of(String campaignId) {
+        for (VkycCampaign campaign : campaigns) {
+            if (campaign.campaignId().equalsIgnoreCase(campaignId.trim())) {
+                return campaign;
+            }
+        }
+        throw new IllegalArgumentException("Unknown VKYC campaign: " + campaignId);
+    }
+
+    private static boolean oneOf(String value, String... options) {
+        return value != null && List.of(options).contains(value);
+    }
+
+    @Override
+    public String toString() {
+        return campaignId;
+    }
+}
@@ -0,0 +1,87 @@
+package playwright.vkyc;
+
+import automator.ConfigManager;
+import automator.DBFactory;
+import automator.DatabaseConnection;
+import automator.RequiresSchemas;
+import automator.VkycFixtures;
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.reporter.ExtentSparkReporter;
+import com.aventstack.extentreports.reporter.configuration.Theme;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Runs every (campaign, loan app ID, environment) in vkyc.campaign_runs concurrently,
+ * vkyc.parallelism at a time, with one report node per run; and ages vkyc_info for the
+ * vkyc.cohort.loan_app_IDs cohort in bulk (VkycFixtures).
+ */
+@RequiresSchemas({DBFactory.CONNECTION_NAMES.LENDING, DBFactory.CONNECTION_NAMES.CALLING_INFRA})
+public class VkycCampaignTest {
+    private static ExtentReports extent;
+    private static ExtentTest test;
+
+    @BeforeClass
+    public void setupReport() {
+        ExtentSparkReporter sparkReporter = new ExtentSparkReporter("test-output/ExtentReport.html");
+        sparkReporter.config().setTheme(Theme.STANDARD);
+        sparkReporter.config().setDocumentTitle("VKYC Campaigns Test Report");
+        extent = new ExtentReports();
+        extent.attachReporter(sparkReporter);
+        test = extent.createTest("VKYC Campaign Runs");
+    }
+
+    @AfterClass
+    public void tearDown() {
+        VkycCampaignEngine.logStats();
+        extent.flush();
+    }
+
+    @Test
+    public void testVkycCampaignRuns() throws Exception {
+        DatabaseConnection.connectToDatabases(getClass());
+        List<VkycCampaignEngine.Run> runs = VkycCampaignEngine.parseRuns(ConfigManager.getVkycCampaignRuns());
+        assertFalse(runs.isEmpty(), "vkyc.campaign_runs is empty in config.properties");
+
+        List<VkycCampaignEngine.Result> results = new VkycCampaignEngine(test).runAll(runs, ConfigManager.getVkycParallelism());
+        VkycCampaignEngine.logSummary(results);
+
+        List<String> failed = new ArrayList<>();
+        for (VkycCampaignEngine.Result result : results) {
+            if (result.outcome() == VkycCampaignEngine.Outcome.FAILED) {
+                failed.add(result.run() + ": " + result.detail());
+            }
+        }
+        assertTrue(failed.isEmpty(), "VKYC campaign runs failed: " + failed);
+    }
+
+    @Test
+    public void testPrepareVkycCohort() throws Exception {
+        List<String> loanAppIds = ConfigManager.getVkycCohortLoanAppIDs();
+        if (loanAppIds.isEmpty()) {
+            throw new SkipException("vkyc.cohort.loan_app_IDs is empty in config.properties");
+        }
+        DatabaseConnection.connectToDatabases(getClass());
+        VkycCampaign campaign = VkycCampaign.of(ConfigManager.getVkycCohortCampaign());
+
+        List<String> notEligible = new ArrayList<>();
+        for (VkycFixtures.Row row : VkycCampaignEngine.prepareCohort(campaign, ConfigManager.getEnvironment(), loanAppIds)) {
+            test.log(row.outcome() == VkycFixtures.Outcome.ELIGIBLE ? Status.INFO : Status.WARNING,
+                    row.loanAppID() + ": " + row.outcome() + (row.detail() != null ? " (" + row.detail() + ")" : ""));
+            if (row.outcome() != VkycFixtures.Outcome.ELIGIBLE) {
+                notEligible.add(row.loanAppID() + "=" + row.outcome());
+            }
+        }
+        assertTrue(notEligible.isEmpty(), campaign + " cohort has rows the cron will not pick up: " + notEligible);
+    }
+}